@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The {@link mqtt.frigateSVRBenchmarks} runs the binding's JMH benchmarks with
+ * the GC profiler, so that each benchmark reports the bytes allocated per
+ * operation (gc.alloc.rate.norm) as well as the operations per second.
+ *
+ * Any arguments are passed to JMH as on its command line, e.g. a regular
+ * expression to run only some of the benchmarks.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        OptionsBuilder opts = new OptionsBuilder();
+        opts.parent(cmd);
+        if (cmd.getIncludes().isEmpty()) {
+            opts.include("org\\.openhab\\.binding\\.mqtt\\.frigatesvr\\..*Benchmark");
+        }
+        Options run = opts.addProfiler(GCProfiler.class).build();
+        new Runner(run).run();
+    }
+}
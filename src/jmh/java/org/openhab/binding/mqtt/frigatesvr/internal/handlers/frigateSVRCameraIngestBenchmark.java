@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.handlers;
+
+import static org.openhab.binding.mqtt.frigatesvr.internal.frigateSVRBindingConstants.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link mqtt.frigateSVRCameraIngestBenchmark} measures the processing of
+ * the messages a camera Thing receives on its own topics - object counts,
+ * snapshots and motion - from processMessage until the message has been dealt
+ * with.
+ *
+ * Each operation is one message. The messages for a topic are fed in turn, in
+ * batches, and each batch is waited for.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class frigateSVRCameraIngestBenchmark {
+
+    private static final int BATCH = 64;
+
+    @Param({ "count", "count-active", "snapshot", "motion" })
+    public String payload = "";
+
+    private @NonNullByDefault({}) frigateSVRHandlerFixture fixture;
+    private @NonNullByDefault({}) frigateSVRCameraHandler camera;
+    private String topic = "";
+    private List<byte[]> messages = Collections.emptyList();
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void Setup() throws Exception {
+        String pfx = frigateSVRHandlerFixture.PREFIX + "/cam01";
+        switch (this.payload) {
+            case "count":
+                this.topic = pfx + "/person";
+                this.messages = Text("0", "1", "2", "1");
+                break;
+            case "count-active":
+                this.topic = pfx + "/person/active";
+                this.messages = Text("0", "1", "2", "1");
+                break;
+            case "snapshot":
+                this.topic = pfx + "/person/snapshot";
+                this.messages = List.of(frigateSVRPayloads.Bytes("snapshot-1.jpg"),
+                        frigateSVRPayloads.Bytes("snapshot-2.jpg"));
+                break;
+            default:
+                this.topic = pfx + "/" + MQTT_MOTION;
+                this.messages = Text("ON", "OFF");
+                break;
+        }
+        this.fixture = new frigateSVRHandlerFixture(1, Collections.emptyMap());
+        this.camera = this.fixture.GetCamera("cam01");
+    }
+
+    private static List<byte[]> Text(String... payloads) {
+        return List.of(payloads).stream().map(p -> p.getBytes(StandardCharsets.UTF_8)).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void TearDown() {
+        this.fixture.Stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void ProcessMessage() throws InterruptedException {
+        for (int i = 0; i < BATCH; i++) {
+            this.camera.processMessage(this.topic, this.messages.get(this.next));
+            this.next = (this.next + 1) % this.messages.size();
+        }
+        this.fixture.Sync();
+    }
+}
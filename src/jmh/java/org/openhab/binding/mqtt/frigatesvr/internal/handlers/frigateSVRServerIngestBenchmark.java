@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.handlers;
+
+import static org.openhab.binding.mqtt.frigatesvr.internal.frigateSVRBindingConstants.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link mqtt.frigateSVRServerIngestBenchmark} measures the processing of
+ * the messages the server Thing receives for all cameras - events, reviews and
+ * stats - from processMessage until the cameras have updated their channels.
+ *
+ * Each operation is one message. The recorded messages are fed in turn, in
+ * batches, and each batch is waited for. Stats are fed with as many cameras
+ * online as the message covers; events and reviews with four cameras.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class frigateSVRServerIngestBenchmark {
+
+    private static final int BATCH = 64;
+
+    @Param({ "events-small", "events-medium", "events-large", "reviews", "stats-1", "stats-8", "stats-64" })
+    public String payload = "";
+
+    private @NonNullByDefault({}) frigateSVRHandlerFixture fixture;
+    private @NonNullByDefault({}) frigateSVRServerHandler server;
+    private String topic = "";
+    private List<byte[]> messages = Collections.emptyList();
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void Setup() throws Exception {
+        int cameras = 4;
+        Map<String, Object> params = Collections.emptyMap();
+        if (this.payload.startsWith("stats-")) {
+            cameras = Integer.parseInt(this.payload.substring(6));
+            this.topic = frigateSVRHandlerFixture.PREFIX + "/" + MQTT_STATS_SUFFIX;
+            this.messages = List.of(frigateSVRPayloads.Bytes(this.payload + ".json"));
+        } else if (this.payload.equals("reviews")) {
+            params = Map.of("ingestMode", "reviews");
+            this.topic = frigateSVRHandlerFixture.PREFIX + "/" + MQTT_REVIEWS_SUFFIX;
+            this.messages = frigateSVRPayloads.Lines(this.payload + ".jsonl");
+        } else {
+            this.topic = frigateSVRHandlerFixture.PREFIX + "/" + MQTT_EVENTS_SUFFIX;
+            this.messages = frigateSVRPayloads.Lines(this.payload + ".jsonl");
+        }
+        this.fixture = new frigateSVRHandlerFixture(cameras, params);
+        this.server = this.fixture.GetServer();
+    }
+
+    @TearDown(Level.Trial)
+    public void TearDown() {
+        this.fixture.Stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void ProcessMessage() throws InterruptedException {
+        for (int i = 0; i < BATCH; i++) {
+            this.server.processMessage(this.topic, this.messages.get(this.next));
+            this.next = (this.next + 1) % this.messages.size();
+        }
+        this.fixture.Sync();
+    }
+}
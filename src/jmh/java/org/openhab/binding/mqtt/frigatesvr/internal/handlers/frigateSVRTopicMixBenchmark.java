@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.handlers;
+
+import static org.openhab.binding.mqtt.frigatesvr.internal.frigateSVRBindingConstants.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link mqtt.frigateSVRTopicMixBenchmark} measures the processing of the
+ * mix of MQTT messages the binding sees from a busy Frigate server, through the
+ * topic dispatch tables of the server and camera Things.
+ *
+ * For each camera, an object passes through: the event messages for it (new,
+ * updates, end) are interleaved with the motion, count, active count, snapshot
+ * and state messages it causes, including active counts for a label we don't
+ * track (which arrive through the wildcard subscription and match no entry in
+ * the table). Then come one tracked object update per camera and one stats
+ * message for them all. The mix is fed in turn as in the other ingest
+ * benchmarks; each operation is one message.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class frigateSVRTopicMixBenchmark {
+
+    private static final int BATCH = 64;
+
+    @Param({ "1", "8", "64" })
+    public int cameras = 1;
+
+    private @NonNullByDefault({}) frigateSVRHandlerFixture fixture;
+    private final List<MqttMessageSubscriber> targets = new ArrayList<MqttMessageSubscriber>();
+    private final List<String> topics = new ArrayList<String>();
+    private final List<byte[]> messages = new ArrayList<byte[]>();
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void Setup() throws Exception {
+
+        this.fixture = new frigateSVRHandlerFixture(this.cameras, Collections.emptyMap());
+        frigateSVRServerHandler server = this.fixture.GetServer();
+        String svr = frigateSVRHandlerFixture.PREFIX;
+        List<byte[]> events = frigateSVRPayloads.Lines("events-medium.jsonl");
+        byte[] snapshot1 = frigateSVRPayloads.Bytes("snapshot-1.jpg");
+        byte[] snapshot2 = frigateSVRPayloads.Bytes("snapshot-2.jpg");
+
+        // the message caught up with each event message, in turn; snapshots
+        // are the topics with no text.
+
+        String[][] around = { { MQTT_MOTION, "ON" }, { "person", "1" }, { "person/active", "1" },
+                { "person/snapshot", "" }, { "bicycle/active", "0" }, { "person/snapshot", "" },
+                { "person/active", "0" }, { MQTT_MOTION, "OFF" } };
+
+        for (int step = 0; step < events.size(); step++) {
+            for (int i = 1; i <= this.cameras; i++) {
+                String name = String.format("cam%02d", i);
+                Add(server, svr + "/" + MQTT_EVENTS_SUFFIX, new String(events.get(step), StandardCharsets.UTF_8)
+                        .replace("cam01", name).getBytes(StandardCharsets.UTF_8));
+                String[] msg = around[step % around.length];
+                Add(this.fixture.GetCamera(name), svr + "/" + name + "/" + msg[0],
+                        !msg[1].isEmpty() ? msg[1].getBytes(StandardCharsets.UTF_8)
+                                : ((step & 2) == 0) ? snapshot1 : snapshot2);
+            }
+        }
+        for (int i = 1; i <= this.cameras; i++) {
+            String name = String.format("cam%02d", i);
+            frigateSVRCameraHandler camera = this.fixture.GetCamera(name);
+            Add(camera, svr + "/" + name + "/person", "0".getBytes(StandardCharsets.UTF_8));
+            Add(camera, svr + "/" + name + "/" + MQTT_DETECTION_GET, "ON".getBytes(StandardCharsets.UTF_8));
+            Add(server, svr + "/" + MQTT_TRACKEDOBJUPDATE, ("{\"type\":\"description\",\"id\":\"1718201234.5-"
+                    + name + "\",\"camera\":\"" + name + "\",\"description\":\"a person\"}")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        Add(server, svr + "/" + MQTT_STATS_SUFFIX, frigateSVRPayloads.Bytes("stats-" + this.cameras + ".json"));
+    }
+
+    private void Add(MqttMessageSubscriber target, String topic, byte[] payload) {
+        this.targets.add(target);
+        this.topics.add(topic);
+        this.messages.add(payload);
+    }
+
+    @TearDown(Level.Trial)
+    public void TearDown() {
+        this.fixture.Stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void ProcessMessage() throws InterruptedException {
+        for (int i = 0; i < BATCH; i++) {
+            this.targets.get(this.next).processMessage(this.topics.get(this.next), this.messages.get(this.next));
+            this.next = (this.next + 1) % this.messages.size();
+        }
+        this.fixture.Sync();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.frigatesvr.internal.frigateSVRBindingConstants;
+import org.openhab.binding.mqtt.frigatesvr.internal.handlers.frigateSVRPayloads;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVREventRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * The {@link mqtt.frigateSVREventDecoderBenchmark} compares the event decoder
+ * with the JSON tree path it replaced (JsonParser, then toString() on each of
+ * the fields we use), over the recorded event messages. With 'wanted' false,
+ * the event is for a camera we don't have: the decoder stops at the camera
+ * name, while the tree path has to parse the whole message to find it.
+ *
+ * Pooled follows an event the rest of the way through the steady-state path:
+ * decoded into the server's record, copied into a record from the camera's pool
+ * and given back once delivered. With the GC profiler this shows what each
+ * event costs in allocation once the pools and the string dictionary are warm.
+ *
+ * KnownBefore decodes as the server does once the camera has the last event for
+ * the object, as it does for every update of an object after the first: the
+ * 'before' block is skipped once its id and camera are read.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class frigateSVREventDecoderBenchmark {
+
+    @Param({ "events-small", "events-medium", "events-large" })
+    public String payload = "";
+
+    @Param({ "true", "false" })
+    public boolean wanted = true;
+
+    private final frigateSVREventDecoder decoder = new frigateSVREventDecoder(new frigateSVRStringDictionary(4096));
+    private final frigateSVREventRecord record = new frigateSVREventRecord();
+    private final frigateSVRObjectPool<frigateSVREventRecord> pool = new frigateSVRObjectPool<frigateSVREventRecord>(
+            frigateSVREventRecord::new, frigateSVRBindingConstants.EVENT_POOL_SIZE);
+    private final Predicate<String> wantCamera = cam -> cam.equals(this.camera);
+    private List<byte[]> messages = Collections.emptyList();
+    private String camera = "";
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void Setup() {
+        this.messages = frigateSVRPayloads.Lines(this.payload + ".jsonl");
+        this.camera = this.wanted ? "cam01" : "cam02";
+    }
+
+    private byte[] Next() {
+        byte[] m = this.messages.get(this.next);
+        this.next = (this.next + 1) % this.messages.size();
+        return m;
+    }
+
+    @Benchmark
+    public void Decoder(Blackhole bh) throws IOException {
+        bh.consume(this.decoder.Decode(Next(), this.wantCamera, this.record));
+        bh.consume(this.record);
+    }
+
+    @Benchmark
+    public void KnownBefore(Blackhole bh) throws IOException {
+        bh.consume(this.decoder.Decode(Next(), this.wantCamera, (cam, id) -> true, this.record));
+        bh.consume(this.record);
+    }
+
+    @Benchmark
+    public void Pooled(Blackhole bh) throws IOException {
+        if (this.decoder.Decode(Next(), this.wantCamera, this.record)) {
+            frigateSVREventRecord held = this.pool.Acquire().copyFrom(this.record);
+            bh.consume(held);
+            this.pool.Release(held);
+        }
+    }
+
+    @Benchmark
+    public void Tree(Blackhole bh) {
+        JsonObject evt = JsonParser.parseString(new String(Next(), StandardCharsets.UTF_8)).getAsJsonObject();
+        JsonObject after = evt.get("after").getAsJsonObject();
+        if (!after.get("camera").getAsString().equals(this.camera)) {
+            return;
+        }
+        JsonObject before = evt.get("before").getAsJsonObject();
+        bh.consume(evt.get("type").getAsString());
+        bh.consume(after.get("id").getAsString());
+        for (String field : frigateSVREventRecord.FIELDS) {
+            bh.consume(Text(before.get(field)));
+            bh.consume(Text(after.get(field)));
+        }
+    }
+
+    private static @Nullable String Text(@Nullable JsonElement e) {
+        return (e == null || e.isJsonNull()) ? null : e.toString();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.structures;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.types.UnDefType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link mqtt.frigateSVRChannelStateBenchmark} compares the number and
+ * timestamp converters with the parses they replaced (a new DecimalType for
+ * every number, and every timestamp through a double), over values of the
+ * kind Frigate sends: frame and start times, fps figures and counts, which
+ * are mostly small whole numbers, and scores and areas, which are not.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class frigateSVRChannelStateBenchmark {
+
+    private static final String[] TIMESTAMPS = { "1718201234.567891", "1718201240.123456", "1718201241.5",
+            "1718201242.0", "1718201250.987654", "1718201251.25" };
+
+    private static final String[] NUMBERS = { "5.0", "5.1", "0", "1", "2", "25", "30", "0.83984375", "30456",
+            "0.0", "12", "1023", "4.9" };
+
+    private int nextTimestamp = 0;
+    private int nextNumber = 0;
+
+    private String NextTimestamp() {
+        String s = TIMESTAMPS[this.nextTimestamp];
+        this.nextTimestamp = (this.nextTimestamp + 1) % TIMESTAMPS.length;
+        return s;
+    }
+
+    private String NextNumber() {
+        String s = NUMBERS[this.nextNumber];
+        this.nextNumber = (this.nextNumber + 1) % NUMBERS.length;
+        return s;
+    }
+
+    @Benchmark
+    public Object Timestamp() {
+        return frigateSVRChannelState.fromTimestampMQTT(NextTimestamp());
+    }
+
+    @Benchmark
+    public Object TimestampDouble() {
+        double ts = Double.parseDouble(NextTimestamp());
+        if (ts != 0.0f) {
+            long sec = (long) ts;
+            long nano = (long) ((ts - sec) * 1000000000);
+            return new DateTimeType(
+                    ZonedDateTime.ofInstant(Instant.ofEpochSecond(sec, nano), ZoneId.systemDefault()));
+        }
+        return UnDefType.NULL;
+    }
+
+    @Benchmark
+    public Object Number() {
+        return frigateSVRChannelState.fromNumberMQTT(NextNumber());
+    }
+
+    @Benchmark
+    public Object NumberDecimal() {
+        return new DecimalType(NextNumber());
+    }
+}
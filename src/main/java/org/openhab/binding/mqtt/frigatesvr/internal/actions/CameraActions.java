@@ -186,6 +186,37 @@ public class CameraActions implements ThingActions {
         return rc.toMap();
     }
 
+    ///////////////////////////////////////////////////////////////////////////
+    // QueryEventHistory
+    //
+    // Query the recent completed events held by the camera Thing. No call
+    // is made to Frigate; the result is returned directly as a JSON array.
+    // Any argument may be null: labels and zones then match anything, and
+    // there is no score, time or count limit.
+
+    @RuleAction(label = "QueryEventHistory", description = "@text/action.QueryEventHistory.description")
+    @ActionOutput(name = "rc", label = "@text/action.QueryEventHistory.rc.label", description = "@text/action.QueryEventHistory.rc.description", type = "String")
+    @ActionOutput(name = "message", label = "@text/action.QueryEventHistory.desc.label", description = "@text/action.QueryEventHistory.desc.description", type = "String")
+    @ActionOutput(name = "result", label = "Result", description = "Result", type = "String")
+    public Map<String, Object> QueryEventHistory(
+            @ActionInput(name = "label", label = "@text/action.QueryEventHistory.label.label", description = "@text/action.QueryEventHistory.label.description") @Nullable String label,
+            @ActionInput(name = "zone", label = "@text/action.QueryEventHistory.zone.label", description = "@text/action.QueryEventHistory.zone.description") @Nullable String zone,
+            @ActionInput(name = "minScore", label = "@text/action.QueryEventHistory.minScore.label", description = "@text/action.QueryEventHistory.minScore.description") @Nullable Double minScore,
+            @ActionInput(name = "from", label = "@text/action.QueryEventHistory.from.label", description = "@text/action.QueryEventHistory.from.description") @Nullable Double from,
+            @ActionInput(name = "to", label = "@text/action.QueryEventHistory.to.label", description = "@text/action.QueryEventHistory.to.description") @Nullable Double to,
+            @ActionInput(name = "limit", label = "@text/action.QueryEventHistory.limit.label", description = "@text/action.QueryEventHistory.limit.description") @Nullable Integer limit) {
+        ResultStruct rc = new ResultStruct();
+        if (this.handler != null) {
+            logger.debug("Action triggered: label QueryEventHistory");
+            rc = this.handler.QueryEventHistory((label != null) ? label : "", (zone != null) ? zone : "",
+                    (minScore != null) ? minScore : 0, (from != null) ? from : 0, (to != null) ? to : 0,
+                    (limit != null) ? limit : 0);
+        } else {
+            rc.message = "action not processed; no handler";
+        }
+        return rc.toMap();
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // PTZ
     //
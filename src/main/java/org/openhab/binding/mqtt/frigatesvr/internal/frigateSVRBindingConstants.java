@@ -18,6 +18,7 @@ import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.core.thing.ThingTypeUID;
+import org.openhab.core.thing.type.ChannelTypeUID;
 
 /**
  * The {@link mqtt.frigateSVRBindingConstants} class defines common constants, which are
@@ -34,6 +35,12 @@ public class frigateSVRBindingConstants {
     public static final ThingTypeUID THING_TYPE_CAMERA = new ThingTypeUID(BINDING_ID, "frigateCamera");
     public static final ThingTypeUID THING_TYPE_SERVER = new ThingTypeUID(BINDING_ID, "frigateServer");
 
+    // Channel type for the per-label object count channels, which are
+    // created dynamically from the tracked object list.
+
+    public static final ChannelTypeUID CHANNEL_TYPE_OBJ_COUNT_LABEL = new ChannelTypeUID(BINDING_ID,
+            "fgObjCountLabel");
+
     // Supported UID list
     public static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = Set.of(THING_TYPE_SERVER, THING_TYPE_CAMERA);
 
@@ -43,6 +50,9 @@ public class frigateSVRBindingConstants {
     public static final String CHANNEL_APIFORWARDER_URL = "fgAPIForwarderURL";
     public static final String CHANNEL_BIRDSEYE_URL = "fgBirdseyeURL";
     public static final String CHANNEL_TRACKEDOBJECTS = "fgTrackedObjects";
+    public static final String CHANNEL_MQTT_QUEUE_DEPTH = "fgMQTTQueueDepth";
+    public static final String CHANNEL_MQTT_DROPPED = "fgMQTTDropped";
+    public static final String CHANNEL_API_CACHE_STATS = "fgAPICacheStats";
 
     public static final String CHANNEL_CAM_CAMFPS = "fgCameraFPS";
     public static final String CHANNEL_CAM_PROCESSFPS = "fgCameraProcessFPS";
@@ -65,6 +75,8 @@ public class frigateSVRBindingConstants {
 
     public static final String CHANNEL_OBJ_COUNT = "fgObjCount";
     public static final String CHANNEL_OBJ_COUNT_ACTIVE = "fgObjCountActive";
+    public static final String CHANNEL_OBJ_COUNT_LABEL_PFX = "fgObjCount_";
+    public static final String CHANNEL_OBJ_COUNT_ACTIVE_LABEL_PFX = "fgObjCountActive_";
     public static final String CHANNEL_OBJ_TRACKED_OBJ_DESC = "fgTrackedObjDescription";
 
     public static final String CHANNEL_LAST_SNAPSHOT_OBJECT = "fgLastSnapshotObject";
@@ -121,9 +133,20 @@ public class frigateSVRBindingConstants {
     public static final String CHANNEL_CUR_MAXSEVERITY = "fgCurMaxSeverity";
     public static final String CHANNEL_CUR_LICENCEPLATE = "fgCurLicencePlate";
 
+    public static final String CHANNEL_REVIEW_TYPE = "fgReviewType";
+    public static final String CHANNEL_REVIEW_ID = "fgReviewID";
+    public static final String CHANNEL_REVIEW_SEVERITY = "fgReviewSeverity";
+    public static final String CHANNEL_REVIEW_START_TIME = "fgReviewStartTime";
+    public static final String CHANNEL_REVIEW_END_TIME = "fgReviewEndTime";
+    public static final String CHANNEL_REVIEW_OBJECTS = "fgReviewObjects";
+    public static final String CHANNEL_REVIEW_SUBLABELS = "fgReviewSubLabels";
+    public static final String CHANNEL_REVIEW_ZONES = "fgReviewZones";
+    public static final String CHANNEL_REVIEW_JSON = "fgReviewJSON";
+
     // MQTT topic suffixes
     public static final String MQTT_EVENTS_SUFFIX = "events";
     public static final String MQTT_STATS_SUFFIX = "stats";
+    public static final String MQTT_REVIEWS_SUFFIX = "reviews";
     public static final String MQTT_KEEPALIVE_SUFFIX = "keepalive";
     public static final String MQTT_AVAILABILITY_SUFFIX = "available";
     public static final String MQTT_ONLINE_SUFFIX = "camOnLine";
@@ -157,4 +180,19 @@ public class frigateSVRBindingConstants {
     public static final String CONF_ID_SERVERID = "serverID";
     public static final String CONF_ID_ENABLESTREAM = "enableStream";
     public static final String CONF_ID_FFMPEGLOCATION = "ffmpegLocation";
+
+    // default per-Thing MQTT message queue size
+    public static final int DEFAULT_MESSAGE_QUEUE_SIZE = 200;
+
+    // maximum number of distinct values held in the server's string dictionary
+    public static final int STRING_DICTIONARY_SIZE = 4096;
+
+    // number of spare event records each camera keeps for reuse
+    public static final int EVENT_POOL_SIZE = 8;
+
+    // number of tracked objects for which each camera keeps the last event states
+    public static final int OBJECT_STATE_CACHE_SIZE = 32;
+
+    // folder in the openHAB user data area holding the server event journals
+    public static final String JOURNAL_FOLDER = "frigatesvr";
 }
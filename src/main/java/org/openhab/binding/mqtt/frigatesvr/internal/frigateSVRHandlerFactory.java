@@ -32,6 +32,7 @@ import org.openhab.core.thing.binding.ThingHandler;
 import org.openhab.core.thing.binding.ThingHandlerFactory;
 import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.cm.ConfigurationAdmin;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
@@ -61,6 +62,17 @@ public class frigateSVRHandlerFactory extends BaseThingHandlerFactory {
         this.services = new frigateSVRServices(httpService, cfgAdmin, networkAddressService);
     }
 
+    ////////////////////////////////////////////////////////////////////////////
+    // deactivate
+    //
+    // Stop any HTTP clients still running when the binding goes away.
+
+    @Override
+    protected void deactivate(ComponentContext componentContext) {
+        super.deactivate(componentContext);
+        this.services.httpClients.StopAll();
+    }
+
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
         return SUPPORTED_THING_TYPES_UIDS.contains(thingTypeUID);
@@ -16,19 +16,36 @@ import static org.openhab.binding.mqtt.frigatesvr.internal.frigateSVRBindingCons
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.frigatesvr.internal.actions.CameraActions;
 import org.openhab.binding.mqtt.frigatesvr.internal.helpers.ResultStruct;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVREventHistory;
 import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRHTTPHelper;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRMessageQueue;
 import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRNetworkHelper;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRObjectPool;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRSnapshotFilter;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRStateBatch;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRStatsDecoder;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRUpdatePlan;
 import org.openhab.binding.mqtt.frigatesvr.internal.servlet.HTTPHandler;
 import org.openhab.binding.mqtt.frigatesvr.internal.servlet.frigateSVRServlet;
 import org.openhab.binding.mqtt.frigatesvr.internal.servlet.streams.DASHStream;
@@ -38,7 +55,9 @@ import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateAPI.APIBas
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateAPI.CameraPTZCaps;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRCameraConfiguration;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRChannelState;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVREventRecord;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRFrigateConfig.frigateSVRFrigateConfigBlock;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRReviewRecord;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRServerConfiguration;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRServerState;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRServices;
@@ -48,6 +67,7 @@ import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.OpenClosedType;
 import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.Channel;
 import org.openhab.core.thing.ChannelUID;
 import org.openhab.core.thing.Thing;
 import org.openhab.core.thing.ThingStatus;
@@ -57,16 +77,13 @@ import org.openhab.core.thing.ThingUID;
 import org.openhab.core.thing.binding.BaseThingHandler;
 import org.openhab.core.thing.binding.BridgeHandler;
 import org.openhab.core.thing.binding.ThingHandlerService;
+import org.openhab.core.thing.binding.builder.ChannelBuilder;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.RefreshType;
 import org.openhab.core.types.State;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-
 /**
  * The {@link mqtt.frigateSVRHandler} is responsible for handling commands, which are
  * sent to one of the channels.
@@ -84,13 +101,100 @@ public class frigateSVRCameraHandler extends BaseThingHandler
 
     private frigateSVRNetworkHelper networkHelper;
     private @Nullable MqttBrokerConnection MQTTConnection = null;
+    private @Nullable frigateSVRServerHandler serverHandler = null;
+    private @Nullable ScheduledFuture<?> streamKeepalive = null;
+
+    // Bumped each time we go offline. Work started when we went online
+    // that completes later checks it has not changed before touching the
+    // Thing, so it can't act on a camera that has since gone offline,
+    // been disposed or come online again.
+
+    private final AtomicInteger onlineGeneration = new AtomicInteger();
+    private volatile @Nullable CompletableFuture<?> ptzCapsRequest = null;
+
+    // Events held in the coalescing window, by object id. This is also
+    // the lock serializing event delivery.
+
+    private final Map<String, frigateSVREventRecord> pendingEvents = new LinkedHashMap<>();
+    private @Nullable ScheduledFuture<?> coalesceFlush = null;
+
+    // The states worked out for the 'current' channels from the last event
+    // for each tracked object. Frigate's 'before' block is the 'after' block
+    // of the last event for the object, so the 'previous' channels take their
+    // states from here rather than convert the same values again. Only used
+    // under the delivery lock. A spare block is kept to swap in. The ids
+    // are also kept in a set the server can ask from its own thread, so
+    // that it need not decode a 'before' block we have already.
+
+    private final Map<String, frigateSVRUpdatePlan.Kept> objectStates = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, frigateSVRUpdatePlan.Kept> eldest) {
+            if (size() > OBJECT_STATE_CACHE_SIZE) {
+                knownObjects.remove(eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Set<String> knownObjects = ConcurrentHashMap.newKeySet();
+    private frigateSVRUpdatePlan.Kept spareStates = new frigateSVRUpdatePlan.Kept(frigateSVREventRecord.FIELDS.length);
+
+    // Event records passed to us are copied into records from this pool,
+    // and returned to it once delivered.
+
+    private final frigateSVRObjectPool<frigateSVREventRecord> eventPool = new frigateSVRObjectPool<>(
+            frigateSVREventRecord::new, EVENT_POOL_SIZE);
+
+    // Object counts by label (the tracked objects, plus 'all'), as last
+    // received and as last published. These are only touched from our
+    // message queue. The flush publishing them is guarded by countLock.
+
+    private String[] countLabels = new String[0];
+    private int[] objCounts = new int[0];
+    private int[] objActive = new int[0];
+    private int[] pubCounts = new int[0];
+    private int[] pubActive = new int[0];
+    private final Object countLock = new Object();
+    private @Nullable ScheduledFuture<?> countFlush = null;
+
+    // Queue for incoming messages; these are processed off the MQTT thread
+
+    private final frigateSVRMessageQueue messageQueue;
+
+    // Drops repeated or too-frequent snapshots
+
+    private frigateSVRSnapshotFilter snapshotFilter = new frigateSVRSnapshotFilter(0, "");
+
+    // The most recent completed events, for the QueryEventHistory action
+
+    private frigateSVREventHistory eventHistory = new frigateSVREventHistory(0);
+
+    // Set when we are initialized, so that the server replays its journal
+    // to us once; and whether we have delivered a live event since, which
+    // the journal must not then overwrite on the channels (guarded by
+    // pendingEvents).
+
+    private final AtomicBoolean journalWanted = new AtomicBoolean(false);
+    private boolean eventsDelivered = false;
+
+    // Topic dispatch table; built when we go online
+
+    private volatile Map<String, frigateSVRTopicHandler> topicDispatch = Collections.emptyMap();
+
+    // MQTT topics (or topic filters) we are currently subscribed to. These
+    // follow the linked channels while we are online.
+
+    private final Set<String> subscribedTopics = new HashSet<String>();
+    private boolean subscriptionsActive = false;
     private frigateSVRHTTPHelper httpHelper = new frigateSVRHTTPHelper();
     private Map<String, frigateSVRChannelState> Channels = new HashMap<String, frigateSVRChannelState>();
     private frigateSVRServlet httpServlet;
 
     // PTZ caps for the camera
 
-    private CameraPTZCaps PTZCaps = new CameraPTZCaps();
+    private volatile CameraPTZCaps PTZCaps = new CameraPTZCaps();
 
     // list of tracked objects; updated from server when Thing is onlined
 
@@ -149,32 +253,91 @@ public class frigateSVRCameraHandler extends BaseThingHandler
             Map.entry("max_severity", CHANNEL_CUR_MAXSEVERITY),
             Map.entry("recognized_license_plate", CHANNEL_CUR_LICENCEPLATE));
 
+    // The event getters above, indexed as the decoded event record
+
+    private String[] EventChannelsPrev = EventChannelTable(JSONEventGettersToPrev);
+    private String[] EventChannelsCur = EventChannelTable(JSONEventGettersToCur);
+
     private Map<String, String> JSONStateGetters = Map.ofEntries(Map.entry("camera_fps", CHANNEL_CAM_CAMFPS),
             Map.entry("process_fps", CHANNEL_CAM_PROCESSFPS), Map.entry("skipped_fps", CHANNEL_CAM_SKIPPEDFPS),
             Map.entry("detection_fps", CHANNEL_CAM_DETECTIONFPS));
 
+    // The stats getters, indexed as the decoded stats figures
+
+    private String[] StatsChannels = StatsChannelTable(JSONStateGetters);
+
+    // The review segment channels, indexed as the decoded review record
+
+    private static final String[] ReviewChannels = { CHANNEL_REVIEW_SEVERITY, CHANNEL_REVIEW_START_TIME,
+            CHANNEL_REVIEW_END_TIME, CHANNEL_REVIEW_OBJECTS, CHANNEL_REVIEW_SUBLABELS, CHANNEL_REVIEW_ZONES };
+
+    // The linked channels from each of the tables above (see BuildUpdatePlans)
+
+    private volatile frigateSVRUpdatePlan planCur = frigateSVRUpdatePlan.EMPTY;
+    private volatile frigateSVRUpdatePlan planPrev = frigateSVRUpdatePlan.EMPTY;
+    private volatile frigateSVRUpdatePlan planStats = frigateSVRUpdatePlan.EMPTY;
+    private volatile frigateSVRUpdatePlan planReview = frigateSVRUpdatePlan.EMPTY;
+
+    // The channel updates from the message being processed. These are
+    // passed to openHAB together, once the whole message is dealt with.
+    // Only used from our message queue.
+
+    private final frigateSVRStateBatch batch = new frigateSVRStateBatch();
+
+    //////////////////////////////////////////////////////////////////
+    // EventChannelTable
     //
-    // Good, now we need a generic way of extracting data to channels based on the mappings in
-    // the getters and the channel map.
+    // Turn an event getter map into an array of channel IDs, indexed
+    // in the same way as the fields in the event record.
 
-    private java.util.function.BiConsumer<Map<String, String>, JsonObject> HandleEventPart = (getter, evtPart) -> {
-        for (var ch : getter.entrySet()) {
-            if (evtPart.has(ch.getKey())) {
-                logger.debug("updating channel {}", ch.getKey());
-                JsonElement st = evtPart.get(ch.getKey());
-                String chstate = (!st.isJsonNull()) ? st.toString() : null;
-                updateState((ch.getValue()),
-                        ((@NonNull frigateSVRChannelState) this.Channels.get(ch.getValue())).toState(chstate));
-            } else {
-                // if we have a channel that doesn't exist in the
-                // event packet back from the camera, we must null out the
-                // channel.
-                logger.debug("channel {} does not exist; nulling", ch.getKey());
-                updateState((ch.getValue()),
-                        ((@NonNull frigateSVRChannelState) this.Channels.get(ch.getValue())).toNullState());
-            }
+    private static String[] EventChannelTable(Map<String, String> getter) {
+        String[] table = new String[frigateSVREventRecord.FIELDS.length];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = ((@NonNull String) getter.get(frigateSVREventRecord.FIELDS[i]));
         }
-    };
+        return table;
+    }
+
+    //////////////////////////////////////////////////////////////////
+    // StatsChannelTable
+    //
+    // As EventChannelTable, but for the stats getters
+
+    private static String[] StatsChannelTable(Map<String, String> getter) {
+        String[] table = new String[frigateSVRStatsDecoder.FIELDS.length];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = ((@NonNull String) getter.get(frigateSVRStatsDecoder.FIELDS[i]));
+        }
+        return table;
+    }
+
+    //////////////////////////////////////////////////////////////////
+    // BuildUpdatePlans
+    //
+    // Build the lists of linked channels to update from each half of an
+    // event, from reviews and from the stats figures. Called when we go
+    // online and when the links change, so that records are only turned
+    // into channel states for channels someone is using.
+
+    private void BuildUpdatePlans() {
+        this.planCur = frigateSVRUpdatePlan.Build(EventChannelsCur, this.Channels, this::isLinked);
+        this.planPrev = frigateSVRUpdatePlan.Build(EventChannelsPrev, this.Channels, this::isLinked);
+        this.planStats = frigateSVRUpdatePlan.Build(StatsChannels, this.Channels, this::isLinked);
+        this.planReview = frigateSVRUpdatePlan.Build(ReviewChannels, this.Channels, this::isLinked);
+    }
+
+    //////////////////////////////////////////////////////////////////
+    // PublishState
+    //
+    // Add a channel update from a raw value to the batch, if the channel's
+    // publish policy says we should.
+
+    private void PublishState(String channel, @Nullable String raw) {
+        State st = ((@NonNull frigateSVRChannelState) this.Channels.get(channel)).toStateIfChanged(raw);
+        if (st != null) {
+            this.batch.Add(channel, st);
+        }
+    }
 
     //////////////////////////////////////////////////////////////////
     // frigateSVRCameraHandler
@@ -367,6 +530,33 @@ public class frigateSVRCameraHandler extends BaseThingHandler
                 Map.entry(CHANNEL_CUR_LICENCEPLATE,
                         new frigateSVRChannelState("recognized_license_plate", frigateSVRChannelState::fromStringMQTT,
                                 frigateSVRChannelState::toStringMQTT, false)),
+                Map.entry(CHANNEL_REVIEW_TYPE,
+                        new frigateSVRChannelState("type", frigateSVRChannelState::fromStringMQTT,
+                                frigateSVRChannelState::toStringMQTT, false)),
+                Map.entry(CHANNEL_REVIEW_ID,
+                        new frigateSVRChannelState("id", frigateSVRChannelState::fromStringMQTT,
+                                frigateSVRChannelState::toStringMQTT, false)),
+                Map.entry(CHANNEL_REVIEW_SEVERITY,
+                        new frigateSVRChannelState("severity", frigateSVRChannelState::fromStringMQTT,
+                                frigateSVRChannelState::toStringMQTT, false)),
+                Map.entry(CHANNEL_REVIEW_START_TIME,
+                        new frigateSVRChannelState("start_time", frigateSVRChannelState::fromTimestampMQTT,
+                                frigateSVRChannelState::toTimestampMQTT, false)),
+                Map.entry(CHANNEL_REVIEW_END_TIME,
+                        new frigateSVRChannelState("end_time", frigateSVRChannelState::fromTimestampMQTT,
+                                frigateSVRChannelState::toTimestampMQTT, false)),
+                Map.entry(CHANNEL_REVIEW_OBJECTS,
+                        new frigateSVRChannelState("objects", frigateSVRChannelState::fromStringMQTT,
+                                frigateSVRChannelState::toStringMQTT, false)),
+                Map.entry(CHANNEL_REVIEW_SUBLABELS,
+                        new frigateSVRChannelState("sub_labels", frigateSVRChannelState::fromStringMQTT,
+                                frigateSVRChannelState::toStringMQTT, false)),
+                Map.entry(CHANNEL_REVIEW_ZONES,
+                        new frigateSVRChannelState("zones", frigateSVRChannelState::fromStringMQTT,
+                                frigateSVRChannelState::toStringMQTT, false)),
+                Map.entry(CHANNEL_REVIEW_JSON,
+                        new frigateSVRChannelState("", frigateSVRChannelState::fromStringMQTT,
+                                frigateSVRChannelState::toStringMQTT, false)),
                 Map.entry(CHANNEL_LAST_SNAPSHOT_OBJECT,
                         new frigateSVRChannelState("", frigateSVRChannelState::fromStringMQTT,
                                 frigateSVRChannelState::toStringMQTT, false)),
@@ -395,6 +585,30 @@ public class frigateSVRCameraHandler extends BaseThingHandler
 
         this.networkHelper = new frigateSVRNetworkHelper(services);
         this.httpServlet = new frigateSVRServlet(services.httpService);
+        this.messageQueue = new frigateSVRMessageQueue(thing.getUID().getId(), DEFAULT_MESSAGE_QUEUE_SIZE);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // WantsEvents, WantsReviews
+    //
+    // Used by the server Thing to decide what to route to us, according
+    // to our ingest mode.
+
+    boolean WantsEvents() {
+        return !config.ingestMode.equals("reviews");
+    }
+
+    boolean WantsReviews() {
+        return config.ingestMode.equals("reviews") || config.ingestMode.equals("both");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // GetMessageQueue
+    //
+    // Used by the server Thing to report queue statistics
+
+    frigateSVRMessageQueue GetMessageQueue() {
+        return this.messageQueue;
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -434,6 +648,14 @@ public class frigateSVRCameraHandler extends BaseThingHandler
 
         logger.debug("camera {} INITIALIZATION handler called ", config.cameraName);
 
+        SetPublishPolicy();
+        this.snapshotFilter = new frigateSVRSnapshotFilter(config.snapshotMinInterval, config.snapshotLabelIntervals);
+        this.eventHistory = new frigateSVREventHistory(config.eventHistorySize);
+        synchronized (this.pendingEvents) {
+            this.eventsDelivered = false;
+        }
+        this.journalWanted.set(true);
+
         updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_PENDING);
 
         Bridge bridge = getBridge();
@@ -444,6 +666,46 @@ public class frigateSVRCameraHandler extends BaseThingHandler
         this.bridgeStatusChanged(bridgeStatus);
     }
 
+    ///////////////////////////////////////////////////////////////////////////
+    // SetPublishPolicy
+    //
+    // Apply the configured update policy to the event and stats channels.
+    // A moving object generates a stream of 'update' events in which most
+    // fields don't change, so there is no point in pushing identical states
+    // to openHAB. The event ID, JSON and type channels are always updated,
+    // as they mark the arrival of an event.
+
+    private void SetPublishPolicy() {
+
+        frigateSVRChannelState.PublishPolicy policy;
+        switch (config.eventUpdatePolicy) {
+            case "always":
+                policy = frigateSVRChannelState.PublishPolicy.ALWAYS;
+                break;
+            case "heartbeat":
+                policy = frigateSVRChannelState.PublishPolicy.ON_CHANGE_OR_HEARTBEAT;
+                break;
+            default:
+            case "onchange":
+                policy = frigateSVRChannelState.PublishPolicy.ON_CHANGE;
+                break;
+        }
+
+        List<String> channels = new ArrayList<String>();
+        channels.addAll(Arrays.asList(EventChannelsCur));
+        channels.addAll(Arrays.asList(EventChannelsPrev));
+        channels.addAll(Arrays.asList(StatsChannels));
+        channels.addAll(Arrays.asList(ReviewChannels));
+        channels.add(CHANNEL_EVENT_CLIP_URL);
+
+        for (String ch : channels) {
+            frigateSVRChannelState cs = ((@NonNull frigateSVRChannelState) this.Channels.get(ch));
+            cs.policy = policy;
+            cs.heartbeatMillis = TimeUnit.SECONDS.toMillis(Math.max(config.eventHeartbeatInterval, 1));
+            cs.resetPublished();
+        }
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // dispose.
     //
@@ -508,6 +770,20 @@ public class frigateSVRCameraHandler extends BaseThingHandler
         return this.PTZCaps;
     }
 
+    ///////////////////////////////////////////////////////////////////
+    // QueryEventHistory
+    //
+    // Query the recent completed events held for the camera. The result
+    // is a JSON array of the matching events, newest first.
+
+    public ResultStruct QueryEventHistory(String label, String zone, double minScore, double from, double to,
+            int limit) {
+        ResultStruct rc = new ResultStruct(true, "ok",
+                this.eventHistory.Query(label, zone, minScore, from, to, limit).getBytes(StandardCharsets.UTF_8));
+        rc.type = "application/json";
+        return rc;
+    }
+
     ///////////////////////////////////////////////////////////////////
     // GetHostAndPort
     //
@@ -637,6 +913,7 @@ public class frigateSVRCameraHandler extends BaseThingHandler
                 frigateSVRServerConfiguration svrCfg = fb.GetServerConfig();
 
                 this.useRelativeURLs = svrCfg.useRelativeURLs;
+                this.messageQueue.SetCapacity(svrCfg.messageQueueSize);
                 this.pfxFrigateToCam = configBlock.mqtt.topicPrefix + "/" + config.cameraName;
                 // this.pfxFrigateInstance = configBlock.mqtt.topicPrefix;
                 logger.debug("Set camera topic to {}", this.pfxFrigateToCam);
@@ -648,15 +925,45 @@ public class frigateSVRCameraHandler extends BaseThingHandler
 
                 this.svrState = fb.GetServerState();
                 this.trackedObjects = fb.GetTrackedObjectList();
-                this.PTZCaps = fb.getAPIHelper().GetCameraPTZCaps(this.config.cameraName);
 
-                // subscribe to MQTT, start the camera stream, and flag us online
+                // the PTZ capabilities arrive when Frigate answers; until then we
+                // have none.
+
+                int generation = this.onlineGeneration.get();
+                this.PTZCaps = new CameraPTZCaps();
+                this.ptzCapsRequest = fb.getAPIHelper().GetCameraPTZCapsAsync(this.config.cameraName)
+                        .thenAccept(caps -> {
+                            if (generation == this.onlineGeneration.get()) {
+                                this.PTZCaps = caps;
+                            }
+                        });
+
+                BuildTopicDispatch();
+                BuildUpdatePlans();
+                UpdateObjectCountChannels();
+
+                // subscribe to MQTT, and register with the server so that events and
+                // stats (which Frigate does not publish per camera) are routed to us.
+                // Then start the camera stream, and flag us online
 
                 SubscribeMQTTTopics();
+                this.serverHandler = fb;
+                fb.RegisterCamera(config.cameraName, this);
                 scheduler.execute(() -> {
-                    StartCameraStream();
+                    if (generation == this.onlineGeneration.get()) {
+                        StartCameraStream();
+                    }
                 });
 
+                // The stream keepalive. This used to ride on the Frigate stats message,
+                // so we keep to Frigate's stats interval; ffKeepalivesBeforeExit is
+                // counted in these.
+
+                int keepalive = Math.max(configBlock.mqtt.statsInterval, 15);
+                this.streamKeepalive = scheduler.scheduleWithFixedDelay(() -> {
+                    this.httpServlet.PokeMe();
+                }, keepalive, keepalive, TimeUnit.SECONDS);
+
                 logger.debug("Camera {} onlining complete", this.config.cameraName);
                 updateStatus(ThingStatus.ONLINE);
 
@@ -721,16 +1028,18 @@ public class frigateSVRCameraHandler extends BaseThingHandler
     // SubscribeMQTTTopics
     //
     // Called during initialization to subscribe to the relevant MQTT
-    // topics other than the server status messages. In other words,
-    // all MQTT messages originating from Frigate
+    // topics other than the server status messages. Events and stats
+    // are not camera-specific topics, so these are subscribed to once
+    // by the server Thing and routed to us from there.
+    //
+    // We only subscribe to the topics feeding channels that are linked;
+    // this follows the links from here on (see channelLinked).
 
     private void SubscribeMQTTTopics() {
-        MqttBrokerConnection conn = this.MQTTConnection;
-        if (conn != null) {
-            conn.subscribe(this.svrState.topicPrefix + "/" + MQTT_EVENTS_SUFFIX, this);
-            conn.subscribe(this.svrState.topicPrefix + "/" + MQTT_STATS_SUFFIX, this);
-            conn.subscribe(this.pfxFrigateToCam + "/#", this);
+        synchronized (this.subscribedTopics) {
+            this.subscriptionsActive = true;
         }
+        UpdateMQTTSubscriptions();
     }
 
     ///////////////////////////////////////////////////////////////////
@@ -743,15 +1052,107 @@ public class frigateSVRCameraHandler extends BaseThingHandler
 
         logger.debug("camera {}: unsubscribing from MQTT", config.cameraName);
         MqttBrokerConnection conn = this.MQTTConnection;
-        if (conn != null) {
-            conn.unsubscribe(this.pfxFrigateToCam + "/#", this);
-            conn.unsubscribe(this.svrState.topicPrefix + "/" + MQTT_STATS_SUFFIX, this);
-            conn.unsubscribe(this.svrState.topicPrefix + "/" + MQTT_EVENTS_SUFFIX, this);
-        } else {
-            logger.debug("unsubscribe: connection is null");
+        synchronized (this.subscribedTopics) {
+            if (conn != null) {
+                for (String topic : this.subscribedTopics) {
+                    conn.unsubscribe(topic, this);
+                }
+            } else {
+                logger.debug("unsubscribe: connection is null");
+            }
+            this.subscribedTopics.clear();
+            this.subscriptionsActive = false;
         }
     }
 
+    ///////////////////////////////////////////////////////////////////
+    // UpdateMQTTSubscriptions
+    //
+    // Bring our subscriptions into line with the linked channels. Frigate
+    // publishes motion, object counts and snapshots at quite a rate; if
+    // nothing is linked to the channels concerned, we don't want them.
+
+    private void UpdateMQTTSubscriptions() {
+
+        MqttBrokerConnection conn = this.MQTTConnection;
+        synchronized (this.subscribedTopics) {
+            if (!this.subscriptionsActive || conn == null) {
+                return;
+            }
+            Set<String> wanted = GetWantedTopics();
+            for (String topic : wanted) {
+                if (this.subscribedTopics.add(topic)) {
+                    logger.debug("camera {}: subscribing to {}", config.cameraName, topic);
+                    conn.subscribe(topic, this);
+                }
+            }
+            this.subscribedTopics.removeIf(topic -> {
+                if (wanted.contains(topic)) {
+                    return false;
+                }
+                logger.debug("camera {}: unsubscribing from {}", config.cameraName, topic);
+                conn.unsubscribe(topic, this);
+                return true;
+            });
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // GetWantedTopics
+    //
+    // The topics (or topic filters) feeding our linked channels. Object
+    // counts are listed per object, as a wildcard here would also catch
+    // the camera state topics.
+
+    private Set<String> GetWantedTopics() {
+
+        Set<String> wanted = new HashSet<String>();
+        for (var getter : this.MQTTGettersToChannels.entrySet()) {
+            if (isLinked(getter.getValue())) {
+                wanted.add(this.pfxFrigateToCam + "/" + getter.getKey());
+            }
+        }
+        boolean anyActive = isLinked(CHANNEL_OBJ_COUNT_ACTIVE);
+        for (String obj : this.countLabels) {
+            if (isLinked(CHANNEL_OBJ_COUNT) || isLinked(CHANNEL_OBJ_COUNT_LABEL_PFX + LabelChannelID(obj))) {
+                wanted.add(this.pfxFrigateToCam + "/" + obj);
+            }
+            anyActive |= isLinked(CHANNEL_OBJ_COUNT_ACTIVE_LABEL_PFX + LabelChannelID(obj));
+        }
+        if (anyActive) {
+            wanted.add(this.pfxFrigateToCam + "/+/active");
+        }
+        if (isLinked(CHANNEL_LAST_SNAPSHOT) || isLinked(CHANNEL_LAST_SNAPSHOT_OBJECT)) {
+            wanted.add(this.pfxFrigateToCam + "/+/snapshot");
+        }
+        return wanted;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // channelLinked, channelUnlinked
+    //
+    // Our MQTT subscriptions and channel update plans follow the channel
+    // links. Unlinked channels are not kept up to date, so a newly linked
+    // channel is updated at the next event whatever the publish policy.
+
+    @Override
+    public void channelLinked(ChannelUID channelUID) {
+        super.channelLinked(channelUID);
+        frigateSVRChannelState cs = this.Channels.get(channelUID.getId());
+        if (cs != null) {
+            cs.resetPublished();
+        }
+        BuildUpdatePlans();
+        UpdateMQTTSubscriptions();
+    }
+
+    @Override
+    public void channelUnlinked(ChannelUID channelUID) {
+        super.channelUnlinked(channelUID);
+        BuildUpdatePlans();
+        UpdateMQTTSubscriptions();
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // SetOffline
     //
@@ -763,6 +1164,40 @@ public class frigateSVRCameraHandler extends BaseThingHandler
     private void SetOffline() {
 
         logger.debug("camera: SetOffline called, stopping streamer");
+        this.onlineGeneration.incrementAndGet();
+        CompletableFuture<?> ptz = this.ptzCapsRequest;
+        if (ptz != null) {
+            ptz.cancel(false);
+            this.ptzCapsRequest = null;
+        }
+        frigateSVRServerHandler fb = this.serverHandler;
+        if (fb != null) {
+            fb.UnregisterCamera(config.cameraName, this);
+            this.serverHandler = null;
+        }
+        ScheduledFuture<?> keepalive = this.streamKeepalive;
+        if (keepalive != null) {
+            keepalive.cancel(true);
+            this.streamKeepalive = null;
+        }
+        synchronized (this.pendingEvents) {
+            ScheduledFuture<?> flush = this.coalesceFlush;
+            if (flush != null) {
+                flush.cancel(false);
+                this.coalesceFlush = null;
+            }
+            this.pendingEvents.clear();
+            this.objectStates.clear();
+            this.knownObjects.clear();
+        }
+        synchronized (this.countLock) {
+            ScheduledFuture<?> flush = this.countFlush;
+            if (flush != null) {
+                flush.cancel(false);
+                this.countFlush = null;
+            }
+        }
+        this.messageQueue.Clear();
         UnsubscribeMQTTTopics();
         scheduler.execute(() -> {
             this.httpServlet.StopServer();
@@ -772,199 +1207,502 @@ public class frigateSVRCameraHandler extends BaseThingHandler
     }
 
     ///////////////////////////////////////////////////////////////////////////
-    // processMessage
+    // ProcessStats
     //
-    // Process incoming MQTT messages for this camera.
+    // Called by the server Thing with our figures from the stats message.
+    // The server decodes the stats message once for all cameras. If we are
+    // not listed in the stats message, we get null figures. These are
+    // queued for processing with our other messages.
 
-    @Override
-    public void processMessage(String topic, byte[] payload) {
+    void ProcessStats(@Nullable String @Nullable [] stats) {
+        this.messageQueue.Submit(() -> HandleStats(stats), true);
+    }
 
-        String state = new String(payload, StandardCharsets.UTF_8);
+    private void HandleStats(@Nullable String @Nullable [] stats) {
 
-        do {
+        // If we don't have the camera listed in the status message, then
+        // the plan nulls out the status channels. This avoids confusion with
+        // 'old' states being left in place if Frigate sends us status without
+        // the camera in the block
 
-            logger.debug("cam {}: Receiving message on topic: {}", config.cameraName, topic);
+        logger.debug("have status for camera {}: {}", config.cameraName, stats != null);
+        this.batch.Clear();
+        this.planStats.Run(stats, this.batch::Add);
+        this.batch.Flush(this::updateState);
+    }
 
-            // Messages direct from Frigate server
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessEvent
+    //
+    // Called by the server Thing when an event for this camera arrives.
+    // The server has already decoded the event and filtered it on camera
+    // name. The record is reused by the server, so we must not hang on to
+    // it.
+    //
+    // We copy it into one of our pooled records, and queue that for
+    // processing with our other messages.
 
-            String action = topic.substring(this.svrState.topicPrefix.length() + 1);
-            String[] bits = action.split("/"); // bits[0] will be message-dependent
+    void ProcessEvent(frigateSVREventRecord evt) {
+        frigateSVREventRecord held = this.eventPool.Acquire().copyFrom(evt);
+        if (!this.messageQueue.Submit(() -> HandleEvent(held), false)) {
+            this.eventPool.Release(held);
+        }
+    }
 
-            logger.debug("cam {}: Received trimmed server message {} (pfxSvrMsg test)", config.cameraName, action);
+    ///////////////////////////////////////////////////////////////////////////
+    // HaveBefore
+    //
+    // Called by the server Thing as it decodes an event: true if we still
+    // have the values of the last event for the object, which Frigate
+    // sends again as the 'before' block. Not while coalescing, as the last
+    // event we delivered need not then be the one Frigate sent before.
 
-            // Camera stats
+    boolean HaveBefore(String id) {
+        return config.eventCoalesceWindow <= 0 && this.knownObjects.contains(id);
+    }
 
-            if (action.endsWith(MQTT_STATS_SUFFIX)) {
-                JsonObject statObj = JsonParser.parseString(state).getAsJsonObject();
-                if (statObj.has("cameras")) {
-                    statObj = statObj.get("cameras").getAsJsonObject();
-                    if (statObj.has(config.cameraName)) {
-                        logger.debug("have status for camera {}", config.cameraName);
-                        JsonObject statusBlock = statObj.get(config.cameraName).getAsJsonObject();
-                        HandleEventPart.accept(JSONStateGetters, statusBlock);
-                    } else {
+    ///////////////////////////////////////////////////////////////////////////
+    // TakeJournal
+    //
+    // Called by the server Thing when we register. Returns true the first
+    // time after we were initialized, when we want the journal replayed to
+    // us; not when we register again after the server comes back online.
 
-                        // If we don't have the camera listed in the status message, then
-                        // we iterate the status channels and null them out. This avoids
-                        // confusion with 'old' states being left in place if Frigate sends us
-                        // status without the camera in the block
+    boolean TakeJournal() {
+        return this.journalWanted.compareAndSet(true, false);
+    }
 
-                        for (var ch : JSONStateGetters.entrySet()) {
-                            updateState((ch.getValue()),
-                                    ((@NonNull frigateSVRChannelState) this.Channels.get(ch.getValue())).toNullState());
-                        }
-                    }
-                }
+    ///////////////////////////////////////////////////////////////////////////
+    // RestoreEvents
+    //
+    // Called by the server Thing with the completed events for this camera
+    // from its journal, oldest first. These go into the event history ahead
+    // of any we have had since, and the last is used to restore the event
+    // value channels. The server hands us records of our own.
+
+    void RestoreEvents(List<frigateSVREventRecord> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        this.messageQueue.Submit(() -> {
+            this.eventHistory.Restore(events);
+            RestoreChannels(events.get(events.size() - 1));
+        }, false);
+    }
 
-                // do keep-alive stuff for streams here
+    ///////////////////////////////////////////////////////////////////////////
+    // RestoreChannels
+    //
+    // Put back the values of the last journalled event on the event channels
+    // (labels, scores, zones, the clip URL and so on). This is not an event:
+    // the event id, type and JSON channels are left alone so that rules
+    // triggered on them don't see an old 'end' again, and the event is not
+    // kept as a live object for the next one to be compared with. If a live
+    // event has come in since we were initialized, its values stand.
+
+    private void RestoreChannels(frigateSVREventRecord evt) {
+        synchronized (this.pendingEvents) {
+            if (this.eventsDelivered) {
+                return;
+            }
+            this.batch.Clear();
+            this.planCur.Run(evt.after, this.batch::Add);
+            if (!evt.beforeSkipped) {
+                this.planPrev.Run(evt.before, this.batch::Add);
+            }
+            PublishState(CHANNEL_EVENT_CLIP_URL,
+                    evt.hasClip() ? this.svrState.url + "api/events/" + evt.id + "/clip.mp4" : "");
+            this.batch.Flush(this::updateState);
+        }
+    }
 
-                this.httpServlet.PokeMe();
-                break;
+    ///////////////////////////////////////////////////////////////////////////
+    // HandleEvent
+    //
+    // If the coalescing window is set, 'update' events are held for the
+    // window and only the latest for each object is delivered. 'new' and
+    // 'end' events are delivered at once, after any update held for the
+    // same object, so that we never lose the start or end of an event.
+
+    private void HandleEvent(frigateSVREventRecord evt) {
+
+        if (config.eventCoalesceWindow <= 0) {
+            synchronized (this.pendingEvents) {
+                DeliverEvent(evt);
             }
+            this.eventPool.Release(evt);
+            return;
+        }
 
-            // Events
-            //
+        synchronized (this.pendingEvents) {
+            if (evt.type.equals("update")) {
+                frigateSVREventRecord replaced = this.pendingEvents.put(evt.id, evt);
+                if (replaced != null) {
+                    this.eventPool.Release(replaced);
+                }
+                if (this.coalesceFlush == null) {
+                    this.coalesceFlush = scheduler.schedule(() -> {
+                        this.messageQueue.Submit(this::FlushPendingEvents, false);
+                    }, config.eventCoalesceWindow, TimeUnit.MILLISECONDS);
+                }
+            } else {
+                frigateSVREventRecord held = this.pendingEvents.remove(evt.id);
+                if (held != null) {
+                    DeliverEvent(held);
+                    this.eventPool.Release(held);
+                }
+                DeliverEvent(evt);
+                this.eventPool.Release(evt);
+            }
+        }
+    }
 
-            if (action.endsWith(MQTT_EVENTS_SUFFIX)) {
+    ///////////////////////////////////////////////////////////////////////////
+    // FlushPendingEvents
+    //
+    // Queued at the end of the coalescing window, and delivers the updates
+    // held in the window in the order the objects were first seen.
+
+    private void FlushPendingEvents() {
+        synchronized (this.pendingEvents) {
+            this.coalesceFlush = null;
+            for (frigateSVREventRecord held : this.pendingEvents.values()) {
+                DeliverEvent(held);
+                this.eventPool.Release(held);
+            }
+            this.pendingEvents.clear();
+        }
+    }
 
-                // Frigate sends us a complex event consisting of the current state
-                // along with the previous state.
-                //
-                // Note that events do not use the camera prefix in the topic. We get
-                // all events for all cameras, so we have to filter here. It is a shame
-                // that Frigate does not discriminate by camera allowing the topic subscription
-                // to do the filtering for us.
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessReview
+    //
+    // Called by the server Thing with a review segment for this camera.
+    // As with events, we take a copy and queue it.
 
-                // we are handling an event. The bag of bits is actually a bunch of JSON.
-                // By parsing the JSON, rather than stuffing it into a Java object, we
-                // can make the channel handling more generic.
+    void ProcessReview(frigateSVRReviewRecord review) {
+        frigateSVRReviewRecord held = review.copy();
+        this.messageQueue.Submit(() -> DeliverReview(held), false);
+    }
 
-                JsonObject evtObj = JsonParser.parseString(state).getAsJsonObject();
-                String evtType = evtObj.get("type").getAsString();
-                JsonObject evtPrev = evtObj.get("before").getAsJsonObject();
-                JsonObject evtCur = evtObj.get("after").getAsJsonObject();
+    ///////////////////////////////////////////////////////////////////////////
+    // DeliverReview
+    //
+    // Update the review channels. As with events, the review type is
+    // updated last so that rules can trigger on it.
+
+    private void DeliverReview(frigateSVRReviewRecord review) {
+        this.batch.Clear();
+        this.planReview.Run(review.values, this.batch::Add);
+        this.batch.Add(CHANNEL_REVIEW_ID,
+                ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_REVIEW_ID)).toState(review.id));
+        if (isLinked(CHANNEL_REVIEW_JSON)) {
+            this.batch.Add(CHANNEL_REVIEW_JSON,
+                    ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_REVIEW_JSON))
+                            .toState(new String(review.raw, StandardCharsets.UTF_8)));
+        }
+        this.batch.Add(CHANNEL_REVIEW_TYPE,
+                ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_REVIEW_TYPE)).toState(review.type));
+        this.batch.Flush(this::updateState);
+    }
 
-                // first check the camera name
+    ///////////////////////////////////////////////////////////////////////////
+    // DeliverEvent
+    //
+    // Update the channels from an event. Frigate sends us a complex event
+    // consisting of the current state along with the previous state. All
+    // the updates are worked out first, then passed to openHAB in order in
+    // one go.
+
+    private void DeliverEvent(frigateSVREventRecord evt) {
+
+        // start with current stuff, then process the previous state. The
+        // current states are kept for the next event for the object (until
+        // it ends), and the previous states taken from those of the last.
+        // Once the object ends, the event goes into the history. If the
+        // 'before' block was skipped, the last event's values stand
+        // in for it; should they have gone since, the previous channels are
+        // left as they are.
+
+        this.batch.Clear();
+        this.eventsDelivered = true;
+        boolean ending = evt.type.equals("end");
+        frigateSVRUpdatePlan.Kept last = ending ? this.objectStates.remove(evt.id) : this.objectStates.get(evt.id);
+        frigateSVRUpdatePlan.Kept keep = ending ? null : this.spareStates;
+        this.planCur.Run(evt.after, this.batch::Add, null, keep);
+        if (!evt.beforeSkipped) {
+            this.planPrev.Run(evt.before, this.batch::Add, last, null);
+        } else if (last != null) {
+            this.planPrev.Run(last.raw, this.batch::Add, last, null);
+        }
+        if (keep != null) {
+            this.objectStates.put(evt.id, keep);
+            this.knownObjects.add(evt.id);
+            this.spareStates = (last != null) ? last
+                    : new frigateSVRUpdatePlan.Kept(frigateSVREventRecord.FIELDS.length);
+        } else {
+            this.knownObjects.remove(evt.id);
+            this.eventHistory.Add(evt);
+        }
 
-                String cam = evtCur.get("camera").getAsString();
-                if (config.cameraName.equals(cam)) {
+        // now deal with the id, snapshot URL and finally update the event
+        // type. We do these manually rather than from the getter map - to
+        // control sequencing - with the event type last.
 
-                    // start with current stuff, then process the previous state
+        String id = evt.id;
+        String evtType = evt.type;
 
-                    HandleEventPart.accept(JSONEventGettersToCur, evtCur);
-                    HandleEventPart.accept(JSONEventGettersToPrev, evtPrev);
+        String ecURL = new String("");
+        if (evt.hasClip()) {
+            ecURL = this.svrState.url + "api/events/" + id + "/clip.mp4";
+        } else {
+            ecURL = "";
+        }
 
-                    // now deal with the id, snapshot URL and finally update the event
-                    // type. We do these manually rather than from the getter map - to
-                    // control sequencing - with the event type last.
+        // update 'em
 
-                    String id = evtCur.get("id").getAsString();
-                    String hasClip = evtCur.get("has_clip").getAsString();
+        PublishState(CHANNEL_EVENT_CLIP_URL, ecURL);
+        this.batch.Add(CHANNEL_EVENT_ID,
+                ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_EVENT_ID)).toState(id));
+        if (isLinked(CHANNEL_EVENT_JSON)) {
+            this.batch.Add(CHANNEL_EVENT_JSON,
+                    ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_EVENT_JSON))
+                            .toState(new String(evt.raw, StandardCharsets.UTF_8)));
+        }
+        this.batch.Add(CHANNEL_EVENT_TYPE,
+                ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_EVENT_TYPE)).toState(evtType));
+        this.batch.Flush(this::updateState);
+    }
 
-                    String ecURL = new String("");
-                    if (hasClip.equals("true")) {
-                        ecURL = this.svrState.url + "api/events/" + id + "/clip.mp4";
-                    } else {
-                        ecURL = "";
-                    }
+    ///////////////////////////////////////////////////////////////////////////
+    // BuildTopicDispatch
+    //
+    // Build the table mapping each topic we get from Frigate to its handler.
+    // We know the topic prefix and the tracked objects by the time we go
+    // online, so we can work out every topic up front rather than pick
+    // apart each one as it arrives.
+
+    private void BuildTopicDispatch() {
+
+        Map<String, frigateSVRTopicHandler> dispatch = new HashMap<String, frigateSVRTopicHandler>();
+
+        // MQTT messages pertaining to configuration other than events:
 
-                    // update 'em
-
-                    updateState(CHANNEL_EVENT_CLIP_URL,
-                            ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_EVENT_CLIP_URL))
-                                    .toState(ecURL));
-                    updateState(CHANNEL_EVENT_ID,
-                            ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_EVENT_ID)).toState(id));
-                    updateState(CHANNEL_EVENT_JSON,
-                            ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_EVENT_JSON)).toState(state));
-                    updateState(CHANNEL_EVENT_TYPE,
-                            ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_EVENT_TYPE)).toState(evtType));
+        for (var getter : this.MQTTGettersToChannels.entrySet()) {
+            String channel = getter.getValue();
+            dispatch.put(this.pfxFrigateToCam + "/" + getter.getKey(), frigateSVRTopicHandler.Text(state -> {
+                updateState(channel, ((@NonNull frigateSVRChannelState) this.Channels.get(channel)).toState(state));
+            }));
+        }
+
+        // Object counts and snapshots.
+        //
+        // We have the format <camname>/<object_name>/<something>, where the
+        // 'something' could be empty (a total count), 'active' (a count of active objects
+        // or 'snapshot' - a snapshot. Why Frigate couldn't have added a <something>
+        // for total counts is a complete mystery....and would simplify the code
+
+        List<String> objects = new ArrayList<String>(this.trackedObjects);
+        objects.add("all");
+        BuildCountTable(objects);
+        for (int i = 0; i < objects.size(); i++) {
+            String obj = objects.get(i);
+            int idx = i;
+            String pfxObj = this.pfxFrigateToCam + "/" + obj;
+            dispatch.put(pfxObj, frigateSVRTopicHandler.Text(state -> {
+                UpdateObjectCount(this.objCounts, idx, state);
+            }));
+            dispatch.put(pfxObj + "/active", frigateSVRTopicHandler.Text(state -> {
+                UpdateObjectCount(this.objActive, idx, state);
+            }));
+
+            // snapshots are JPEGs; these go straight to the channel without
+            // any decoding.
+
+            dispatch.put(pfxObj + "/snapshot", frigateSVRTopicHandler.Droppable(payload -> {
+                logger.debug("received snapshot for cam {} object {}", config.cameraName, obj);
+                if (!this.snapshotFilter.Accept(obj, payload)) {
+                    return;
                 }
-                break;
-            }
+                this.updateState(CHANNEL_LAST_SNAPSHOT_OBJECT,
+                        ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_LAST_SNAPSHOT_OBJECT))
+                                .toState(obj));
+                this.updateState(CHANNEL_LAST_SNAPSHOT,
+                        ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_LAST_SNAPSHOT))
+                                .toStateFromRaw(payload, "image/jpeg"));
+            }));
+        }
 
-            //
-            // messages between Frigate server direct to cameras
+        this.topicDispatch = Map.copyOf(dispatch);
+    }
 
-            if (action.startsWith(config.cameraName + "/")) {
+    ///////////////////////////////////////////////////////////////////////////
+    // BuildCountTable
+    //
+    // Set up the object count table for the given labels. All counts
+    // start at zero, and nothing has been published.
+
+    private void BuildCountTable(List<String> labels) {
+        this.countLabels = labels.toArray(new String[0]);
+        this.objCounts = new int[labels.size()];
+        this.objActive = new int[labels.size()];
+        this.pubCounts = new int[labels.size()];
+        this.pubActive = new int[labels.size()];
+        Arrays.fill(this.pubCounts, -1);
+        Arrays.fill(this.pubActive, -1);
+    }
 
-                String cammsg = topic.substring(this.pfxFrigateToCam.length() + 1);
-                logger.debug("cam {}: Received trimmed Frigate server->camera message :{}", config.cameraName, cammsg);
+    ///////////////////////////////////////////////////////////////////////////
+    // UpdateObjectCount
+    //
+    // Record a count from Frigate in the table, and arrange for the table
+    // to be published. Frigate publishes a count for each label whenever
+    // any changes, so we publish all labels at once, at most once in the
+    // objectCountInterval.
 
-                // MQTT messages pertaining to configuration other than events:
+    private void UpdateObjectCount(int[] table, int idx, String state) {
 
-                if (this.MQTTGettersToChannels.containsKey(cammsg)) {
-                    String channel = this.MQTTGettersToChannels.get(cammsg);
-                    if (channel != null) {
-                        updateState(channel,
-                                ((@NonNull frigateSVRChannelState) this.Channels.get(channel)).toState(state));
-                    }
-                    break;
-                }
+        if (idx >= table.length) {
+            return; // table rebuilt since the message was queued
+        }
+        try {
+            table[idx] = Integer.parseInt(state.trim());
+        } catch (NumberFormatException e) {
+            logger.debug("cam {}: invalid object count '{}'", config.cameraName, state);
+            return;
+        }
 
-                // Here, we have now covered the bases where the channel is a standard getter.
-
-                // Object counts and snapshots.
-                //
-                // Now, if we have the format <camname>/<object_name>/<something>, then the
-                // 'something' could be empty (a total count), 'active' (a count of active objects
-                // or 'snapshot' - a snapshot. We need to check the object name and the suffix.
-                // In this case, bits[0] will be the cam name, bits[1] the obj name, and bits[2]
-                // the 'something' if it exists. Why Frigate couldn't have added a <something>
-                // for total counts is a complete mystery....and would simplify the code
-
-                if (bits.length >= 2) { // bits[0] is the prefix
-
-                    if (this.trackedObjects.contains(bits[1]) || bits[1].equals("all")) {
-                        logger.info("camera: {}: have tracked object: {}", config.cameraName, bits[1]);
-                        String MsgType = "totcount";
-
-                        if (bits.length == 3) {
-                            // the message will be a snapshot or an active count
-                            MsgType = bits[2];
-                        }
-
-                        String objcount = "";
-                        switch (MsgType) {
-
-                            case "totcount":
-                                objcount = new String("{ \"object\" : \"" + bits[1] + "\", \"count\" : " + state + "}");
-                                this.updateState(CHANNEL_OBJ_COUNT,
-                                        ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_OBJ_COUNT))
-                                                .toState(objcount));
-                                break;
-
-                            case "active":
-                                objcount = new String("{ \"object\" : \"" + bits[1] + "\", \"count\" : " + state + "}");
-                                this.updateState(CHANNEL_OBJ_COUNT_ACTIVE,
-                                        ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_OBJ_COUNT_ACTIVE))
-                                                .toState(objcount));
-                                break;
-
-                            case "snapshot":
-                                logger.debug("received snapshot for cam {} object {}", config.cameraName, bits[1]);
-                                this.updateState(CHANNEL_LAST_SNAPSHOT_OBJECT,
-                                        ((@NonNull frigateSVRChannelState) this.Channels
-                                                .get(CHANNEL_LAST_SNAPSHOT_OBJECT)).toState(bits[1]));
-                                this.updateState(CHANNEL_LAST_SNAPSHOT,
-                                        ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_LAST_SNAPSHOT))
-                                                .toStateFromRaw(payload, "image/jpeg"));
-                                break;
-
-                            default:
-                                logger.warn("received unknown camera message {} for cam {}", MsgType,
-                                        config.cameraName);
-                                break;
-
-                        }
-
-                        break;
-                    }
+        if (config.objectCountInterval <= 0) {
+            PublishObjectCounts();
+            return;
+        }
+        synchronized (this.countLock) {
+            if (this.countFlush == null) {
+                this.countFlush = scheduler.schedule(() -> {
+                    this.messageQueue.Submit(this::PublishObjectCounts, false);
+                }, config.objectCountInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // PublishObjectCounts
+    //
+    // Publish the count table as a JSON object of label to count, and
+    // update any per-label channels whose count has changed.
+
+    private void PublishObjectCounts() {
+
+        synchronized (this.countLock) {
+            this.countFlush = null;
+        }
+
+        boolean changed = false;
+        boolean changedActive = false;
+        StringBuilder sb = new StringBuilder("{");
+        StringBuilder sbActive = new StringBuilder("{");
+        for (int i = 0; i < this.countLabels.length; i++) {
+            String sep = (i == 0) ? "\"" : ",\"";
+            sb.append(sep).append(this.countLabels[i]).append("\":").append(this.objCounts[i]);
+            sbActive.append(sep).append(this.countLabels[i]).append("\":").append(this.objActive[i]);
+            if (this.objCounts[i] != this.pubCounts[i]) {
+                changed = true;
+                this.pubCounts[i] = this.objCounts[i];
+                if (config.objectCountChannels) {
+                    updateState(CHANNEL_OBJ_COUNT_LABEL_PFX + LabelChannelID(this.countLabels[i]),
+                            new DecimalType(this.objCounts[i]));
+                }
+            }
+            if (this.objActive[i] != this.pubActive[i]) {
+                changedActive = true;
+                this.pubActive[i] = this.objActive[i];
+                if (config.objectCountChannels) {
+                    updateState(CHANNEL_OBJ_COUNT_ACTIVE_LABEL_PFX + LabelChannelID(this.countLabels[i]),
+                            new DecimalType(this.objActive[i]));
                 }
             }
+        }
+        if (changed) {
+            updateState(CHANNEL_OBJ_COUNT, ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_OBJ_COUNT))
+                    .toState(sb.append("}").toString()));
+        }
+        if (changedActive) {
+            updateState(CHANNEL_OBJ_COUNT_ACTIVE,
+                    ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_OBJ_COUNT_ACTIVE))
+                            .toState(sbActive.append("}").toString()));
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // LabelChannelID
+    //
+    // The part of a per-label channel ID derived from the label. Channel IDs
+    // are restricted to letters, digits, '_' and '-'.
+
+    private static String LabelChannelID(String label) {
+        return label.replaceAll("[^\\w-]", "_");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // UpdateObjectCountChannels
+    //
+    // Add a pair of Number channels (total and active) for each label in
+    // the count table, if enabled in our config; remove any we have that
+    // are no longer wanted.
+
+    private void UpdateObjectCountChannels() {
+
+        List<String> wanted = new ArrayList<String>();
+        if (config.objectCountChannels) {
+            for (String label : this.countLabels) {
+                wanted.add(CHANNEL_OBJ_COUNT_LABEL_PFX + LabelChannelID(label));
+                wanted.add(CHANNEL_OBJ_COUNT_ACTIVE_LABEL_PFX + LabelChannelID(label));
+            }
+        }
 
-            logger.debug("no handler for topic: {}", topic);
+        List<Channel> remove = new ArrayList<Channel>();
+        for (Channel ch : getThing().getChannels()) {
+            String id = ch.getUID().getIdWithoutGroup();
+            if (CHANNEL_TYPE_OBJ_COUNT_LABEL.equals(ch.getChannelTypeUID()) && !wanted.remove(id)) {
+                remove.add(ch);
+            }
+        }
 
-        } while (false);
+        if (remove.isEmpty() && wanted.isEmpty()) {
+            return;
+        }
+
+        List<Channel> add = new ArrayList<Channel>();
+        for (String id : wanted) {
+            boolean active = id.startsWith(CHANNEL_OBJ_COUNT_ACTIVE_LABEL_PFX);
+            String label = id.substring(
+                    active ? CHANNEL_OBJ_COUNT_ACTIVE_LABEL_PFX.length() : CHANNEL_OBJ_COUNT_LABEL_PFX.length());
+            add.add(ChannelBuilder.create(new ChannelUID(getThing().getUID(), id), "Number")
+                    .withType(CHANNEL_TYPE_OBJ_COUNT_LABEL)
+                    .withLabel(active ? "Active " + label + " count" : "Total " + label + " count").build());
+        }
+        logger.debug("cam {}: adding {} and removing {} object count channels", config.cameraName, add.size(),
+                remove.size());
+        updateThing(editThing().withoutChannels(remove).withChannels(add).build());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // processMessage
+    //
+    // Process incoming MQTT messages for this camera. Everything we want
+    // is in the dispatch table. We are on the MQTT client's thread here,
+    // so we just queue the message for processing.
+
+    @Override
+    public void processMessage(String topic, byte[] payload) {
+
+        logger.debug("cam {}: Receiving message on topic: {}", config.cameraName, topic);
+
+        frigateSVRTopicHandler handler = this.topicDispatch.get(topic);
+        if (handler != null) {
+            this.messageQueue.Submit(() -> handler.Process(payload), handler.IsDroppable());
+        } else {
+            logger.debug("no handler for topic: {}", topic);
+        }
     }
 }
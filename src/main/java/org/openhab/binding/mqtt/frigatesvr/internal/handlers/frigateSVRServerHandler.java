@@ -14,23 +14,39 @@ package org.openhab.binding.mqtt.frigatesvr.internal.handlers;
 
 import static org.openhab.binding.mqtt.frigatesvr.internal.frigateSVRBindingConstants.*;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.frigatesvr.internal.helpers.ResultStruct;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVREventDecoder;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVREventJournal;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRHTTPClientRegistry;
 import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRHTTPHelper;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRMessageQueue;
 import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRNetworkHelper;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRStatsDecoder;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRStringDictionary;
 import org.openhab.binding.mqtt.frigatesvr.internal.servlet.HTTPHandler;
 import org.openhab.binding.mqtt.frigatesvr.internal.servlet.frigateSVRServlet;
 import org.openhab.binding.mqtt.frigatesvr.internal.servlet.streams.DASHStream;
@@ -40,11 +56,14 @@ import org.openhab.binding.mqtt.frigatesvr.internal.servlet.streams.MJPEGStream;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateAPI.APIBase;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateAPI.APIHelper;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRChannelState;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVREventRecord;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRFrigateConfiguration;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRReviewRecord;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRServerConfiguration;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRServerState;
 import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRServices;
 import org.openhab.binding.mqtt.handler.AbstractBrokerHandler;
+import org.openhab.core.OpenHAB;
 import org.openhab.core.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.core.io.transport.mqtt.MqttMessageSubscriber;
 import org.openhab.core.thing.Bridge;
@@ -82,7 +101,70 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
 
     // Server information to be sent to camera
 
-    private List<String> trackedObjs = Collections.emptyList();
+    private volatile List<String> trackedObjs = Collections.emptyList();
+    private final AtomicBoolean checkInProgress = new AtomicBoolean(false);
+
+    // Bumped when we are disposed or lose the MQTT bridge. A server check
+    // started before then finds it changed at its next step that touches
+    // the Thing, and gives up. The steps still to run are kept so that
+    // they can be cancelled.
+
+    private final AtomicInteger checkGeneration = new AtomicInteger();
+    private final Set<CompletableFuture<?>> checkStages = ConcurrentHashMap.newKeySet();
+
+    // Routing map from Frigate camera name to the camera handler. Frigate
+    // publishes events and stats for all cameras on shared topics, so we
+    // subscribe to these once and hand each camera its own slice.
+
+    private final Map<String, frigateSVRCameraHandler> cameraRoutes = new ConcurrentHashMap<>();
+    private final frigateSVRStringDictionary dictionary = new frigateSVRStringDictionary(STRING_DICTIONARY_SIZE);
+    private final frigateSVREventDecoder eventDecoder = new frigateSVREventDecoder(dictionary);
+    private final frigateSVREventRecord eventRecord = new frigateSVREventRecord();
+    private final frigateSVRReviewRecord reviewRecord = new frigateSVRReviewRecord();
+    private long lastStatsPublish = 0;
+
+    // What the decoder asks of each event or review: is it for a camera
+    // we have that wants it, and does the camera have the 'before' values
+    // of the event already?
+
+    private final Predicate<String> wantsEvents = cam -> {
+        frigateSVRCameraHandler handler = this.cameraRoutes.get(cam);
+        return handler != null && handler.WantsEvents();
+    };
+    private final Predicate<String> wantsReviews = cam -> {
+        frigateSVRCameraHandler handler = this.cameraRoutes.get(cam);
+        return handler != null && handler.WantsReviews();
+    };
+    private final BiPredicate<String, String> haveBefore = (cam, id) -> {
+        frigateSVRCameraHandler handler = this.cameraRoutes.get(cam);
+        return handler != null && handler.HaveBefore(id);
+    };
+
+    // Journal of completed events, kept across restarts. It is opened in
+    // the background; each camera's events are replayed from it to the
+    // camera, also in the background, when it registers with us.
+
+    private volatile CompletableFuture<@Nullable frigateSVREventJournal> journal = CompletableFuture
+            .completedFuture(null);
+
+    // Topic dispatch table; built when we subscribe
+
+    private volatile Map<String, frigateSVRTopicHandler> topicDispatch = Collections.emptyMap();
+
+    // The events and reviews topics are only subscribed to while there is
+    // a camera that wants them; we note what we are subscribed to here.
+
+    private final Set<String> feedTopics = new HashSet<String>();
+    private @Nullable String feedPrefix = null;
+
+    // Queue for incoming messages; these are processed off the MQTT thread
+
+    private final frigateSVRMessageQueue messageQueue;
+
+    // The binding's HTTP clients; ours is shared with other servers that
+    // have the same client settings.
+
+    private final frigateSVRHTTPClientRegistry httpClients;
 
     protected frigateSVRServlet httpServlet;
     protected Map<String, frigateSVRChannelState> Channels = new HashMap<String, frigateSVRChannelState>();
@@ -120,11 +202,23 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
                 Map.entry(CHANNEL_TRACKEDOBJECTS,
                         new frigateSVRChannelState(CHANNEL_TRACKEDOBJECTS, frigateSVRChannelState::fromStringMQTT,
                                 frigateSVRChannelState::toStringMQTT, false)),
-                Map.entry(CHANNEL_OBJ_TRACKED_OBJ_DESC, new frigateSVRChannelState(CHANNEL_OBJ_TRACKED_OBJ_DESC,
-                        frigateSVRChannelState::fromStringMQTT, frigateSVRChannelState::toStringMQTT, false)));
+                Map.entry(CHANNEL_OBJ_TRACKED_OBJ_DESC,
+                        new frigateSVRChannelState(CHANNEL_OBJ_TRACKED_OBJ_DESC,
+                                frigateSVRChannelState::fromStringMQTT, frigateSVRChannelState::toStringMQTT, false)),
+                Map.entry(CHANNEL_MQTT_QUEUE_DEPTH,
+                        new frigateSVRChannelState(CHANNEL_MQTT_QUEUE_DEPTH, frigateSVRChannelState::fromNumberMQTT,
+                                frigateSVRChannelState::toNumberMQTT, false)),
+                Map.entry(CHANNEL_MQTT_DROPPED,
+                        new frigateSVRChannelState(CHANNEL_MQTT_DROPPED, frigateSVRChannelState::fromNumberMQTT,
+                                frigateSVRChannelState::toNumberMQTT, false)),
+                Map.entry(CHANNEL_API_CACHE_STATS,
+                        new frigateSVRChannelState(CHANNEL_API_CACHE_STATS, frigateSVRChannelState::fromStringMQTT,
+                                frigateSVRChannelState::toStringMQTT, false)));
 
         this.networkHelper = new frigateSVRNetworkHelper(services);
         this.httpServlet = new frigateSVRServlet(services.httpService);
+        this.messageQueue = new frigateSVRMessageQueue(thing.getUID().getId(), DEFAULT_MESSAGE_QUEUE_SIZE);
+        this.httpClients = services.httpClients;
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -136,11 +230,15 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
     public void initialize() {
 
         config = getConfigAs(frigateSVRServerConfiguration.class);
+        this.messageQueue.SetCapacity(config.messageQueueSize);
+        OpenJournal();
 
         // Foreground initiation of the basics of HTTPClient. We need the stuff from the configuration.
 
         this.httpHelper.configure(config.serverURL, config.HTTPTimeout, config.requireAuth, config.username,
-                config.password, config.allowSelfSigned);
+                config.password, config.allowSelfSigned, this.httpClients, config.httpMaxConnections,
+                (int) TimeUnit.SECONDS.toMillis(config.httpIdleTimeout), config.httpTCPKeepAlive);
+        this.httpHelper.SetCacheBudget(config.httpCacheSize * 1024L);
 
         // build our server state block. Cameras may need some of this info.
 
@@ -176,9 +274,13 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
             ((@NonNull ScheduledFuture<?>) servercheck).cancel(true);
             servercheck = null;
         }
+        CancelServerChecks();
         UnsubscribeMQTTTopics(this.svrState.topicPrefix);
+        this.messageQueue.Clear();
+        CloseJournal();
         logger.debug("server-thing: stopping streaming server (disposal)");
         this.httpServlet.StopServer();
+        this.httpHelper.release();
         super.dispose();
     }
 
@@ -226,9 +328,21 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
     // (a) access to the HTTP server and (b) have extricated
     // the version, config and topic prefix, thus allowing us to
     // correctly subscribe to MQTT messages
+    //
+    // We don't wait for the server here: each call to Frigate chains the
+    // next step onto the answer, and the steps that touch the Thing are
+    // run on our scheduler. A check still waiting for the server when the
+    // next one is due is left to finish, and the next one skipped. Each
+    // step checks the check is still current before it touches the Thing.
 
     private void CheckServerAccessThread() {
 
+        if (!this.checkInProgress.compareAndSet(false, true)) {
+            logger.debug("server check still waiting for Frigate");
+            return;
+        }
+        int generation = this.checkGeneration.get();
+
         // Ok - we have started. Now, if we are running in an OFFLINE
         // state, then we have to try and retrieve the config block. If we
         // are already online, we can simply ping the version command
@@ -237,184 +351,282 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
         // use the VERSION command as this results in the shortest
         // data packet.
 
-        do {
+        CompletableFuture<@Nullable Void> check = CompletableFuture.completedFuture(null);
+        if (this.getThing().getStatus().equals(ThingStatus.OFFLINE)) {
+            check = CheckServerOffline(generation);
+        }
 
-            if (this.getThing().getStatus().equals(ThingStatus.OFFLINE)) {
+        // if we are online, we need to ping to check. The config from Frigate does not change at
+        // runtime.
 
-                logger.debug(" - Frigate server is offline");
+        TrackServerCheck(check.thenCompose(v -> {
+            if (IsCurrentCheck(generation) && this.getThing().getStatus().equals(ThingStatus.ONLINE)) {
+                return CheckServerOnline(generation);
+            }
+            return CompletableFuture.<@Nullable Void> completedFuture(null);
+        })).whenComplete((v, e) -> {
+            if (!IsCurrentCheck(generation)) {
+                return;
+            }
+            if (e != null) {
+                logger.error("server check failed ({})", e.getMessage());
+            }
+            this.checkInProgress.set(false);
+        });
+    }
 
-                // Get the version string.
+    ///////////////////////////////////////////////////////////////////
+    // TrackServerCheck, IsCurrentCheck, CancelServerChecks
+    //
+    // Keep a step of the server check until it completes, so that it can
+    // be cancelled; whether a check is still current; and cancelling all
+    // checks, when we are disposed or lose the MQTT bridge.
+
+    private <T> CompletableFuture<T> TrackServerCheck(CompletableFuture<T> stage) {
+        this.checkStages.add(stage);
+        stage.whenComplete((v, e) -> this.checkStages.remove(stage));
+        return stage;
+    }
 
-                ResultStruct r = this.httpHelper.runGet("/api/version");
+    private boolean IsCurrentCheck(int generation) {
+        return generation == this.checkGeneration.get();
+    }
 
-                if (!r.rc) {
-                    logger.debug("unable to get version string");
-                    break;
-                }
+    private void CancelServerChecks() {
+        this.checkGeneration.incrementAndGet();
+        for (CompletableFuture<?> stage : this.checkStages) {
+            stage.cancel(false);
+        }
+        this.checkStages.clear();
+        this.checkInProgress.set(false);
+    }
 
-                this.version = new String(r.raw);
+    ///////////////////////////////////////////////////////////////////
+    // CheckServerOffline
+    //
+    // We are offline: get the version and the configuration from Frigate
+    // and, if we can, bring the Thing online.
 
-                // Get the full Frigate server configuration. We will need
-                // this for all descendants.
+    private CompletableFuture<@Nullable Void> CheckServerOffline(int generation) {
 
-                r = this.httpHelper.runGet("/api/config");
+        logger.debug(" - Frigate server is offline");
 
-                // If this fails, we can go no further.
+        // Get the version string.
 
-                if (!r.rc) {
-                    logger.debug("Unable to obtain Frigate configuration");
-                    break;
-                }
+        return TrackServerCheck(this.httpHelper.runGetAsync("/api/version").thenCompose(r -> {
 
-                String cfg = new String(r.raw);
+            if (!IsCurrentCheck(generation)) {
+                return CompletableFuture.<@Nullable Void> completedFuture(null);
+            }
+            if (!r.rc) {
+                logger.debug("unable to get version string");
+                return CompletableFuture.<@Nullable Void> completedFuture(null);
+            }
 
-                // extricate the configuration - and build the config object
+            this.version = new String(r.raw);
 
-                try {
-                    frigateConfig.GetConfiguration(cfg);
-                } catch (Exception e) {
-                    // again, if this fails, we can go no further.
-                    logger.warn("server config block not valid ({})", e.getMessage());
-                    break;
-                }
+            // Get the full Frigate server configuration. We will need
+            // this for all descendants.
 
-                logger.debug("have configuration block");
+            return TrackServerCheck(this.httpHelper.runGetAsync("/api/config").thenComposeAsync(c -> {
 
-                // topic_prefix/
-                //
-                // the topic_prefix is pulled from the configuration later, when
-                // we have access to Frigate's HTTP API while we are onlining the
-                // server Thing
-                // We must retain this prefix as it may change in a multi-instance
-                // configuration
+                // If this fails, we can go no further.
 
-                String old_topicPrefix = this.svrState.topicPrefix;
-                this.svrState.topicPrefix = frigateConfig.block.mqtt.topicPrefix;
-                if (this.svrState.topicPrefix.isBlank() || this.svrState.topicPrefix.isEmpty()) {
-                    this.svrState.topicPrefix = "frigate"; // the default
+                if (!IsCurrentCheck(generation)) {
+                    return CompletableFuture.<@Nullable Void> completedFuture(null);
+                }
+                if (!c.rc) {
+                    logger.debug("Unable to obtain Frigate configuration");
+                    return CompletableFuture.<@Nullable Void> completedFuture(null);
+                }
+                if (!TakeServerConfiguration(new String(c.raw))) {
+                    return CompletableFuture.<@Nullable Void> completedFuture(null);
                 }
 
-                // client_id
-                //
-                // We won't be able to access the HTTP API with multiple instances unless we know this
-                // a-priori, so we pull it from our config and rely on the user
-                // to set it correctly
-                // In restart, the clientID from the frigate config may have changed.
-                // We use the clientID as the prefix for internal URLs.
-                // So we must update our URL prefix based on the config
-
-                this.svrState.clientID = frigateConfig.block.mqtt.clientID;
-
-                // URLChannelPrefix
-                //
-                // This is the prefix prepended to URLs in channels and will change depending
-                // on whether the forwarder is enabled, and if the configuration useRelativeURLs
-                // is set to true.
-                //
-                // If the forwarder is enabled, the URL, whether relative or absolute, will
-                // appear to point to the openHAB instance. If the forwarder is disabled, the
-                // URL, whether relative or absolute, will point to the Frigate instance.
-                // Forwarder, relative: prefix=<clientID>/forwarder
-                // Forwarder, qualified: prefix=<OH host>/<clientID>/forwarder
-                // No forwarder, relative: prefix=/
-                // No forwarder, qualified: prefix=<Frigate host>/
-
-                String urlpfx = "/";
-
-                if (config.enableAPIForwarder == true) {
-                    urlpfx += frigateConfig.block.mqtt.clientID;
-                    if (!config.useRelativeURLs) {
-                        urlpfx = this.networkHelper.GetHostBaseURL() + urlpfx;
+                // update tracked objects.
+
+                return TrackServerCheck(this.apiHelper.getTrackedObjectsAsync().handleAsync((objs, e) -> {
+                    if (!IsCurrentCheck(generation)) {
+                        return null;
                     }
-                } else {
-                    if (!config.useRelativeURLs) {
-                        urlpfx = config.serverURL + urlpfx;
+                    if (objs == null || e != null) {
+                        logger.error("unable to retrieve tracked object list ({})",
+                                (e != null) ? e.getMessage() : "none");
+                    } else {
+                        OnlineServer(objs);
                     }
-                }
-                this.svrState.URLChannelPrefix = urlpfx;
+                    return null;
+                }, scheduler));
+            }, scheduler));
+        }));
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // TakeServerConfiguration
+    //
+    // Build our configuration from Frigate's config block, and subscribe
+    // to Frigate's MQTT topics. Returns false if the block is not valid.
 
-                // Ok, here we have comms. Now since we are transitioning from
-                // OFFLINE to ONLINE, it is entirely possible the MQTT topic prefix
-                // has changed, so ensure we update this.
+    private boolean TakeServerConfiguration(String cfg) {
 
-                // Now, yank the topic prefix out of the config. If for some reason
-                // Frigate doesn't feed it to us, assume it is 'frigate'. The topic
-                // prefix may not be the same as a client_id for a given instance of
-                // Frigate
+        // extricate the configuration - and build the config object
 
-                if (!old_topicPrefix.equals(this.svrState.topicPrefix)) {
-                    UnsubscribeMQTTTopics(old_topicPrefix);
-                }
-                SubscribeMQTTTopics(this.svrState.topicPrefix);
+        try {
+            frigateConfig.GetConfiguration(cfg);
+        } catch (Exception e) {
+            // again, if this fails, we can go no further.
+            logger.warn("server config block not valid ({})", e.getMessage());
+            return false;
+        }
 
-                // this.svrState.status = "online";
-                this.svrState.Cameras = this.frigateConfig.block.GetCameraList();
+        logger.debug("have configuration block");
 
-                // update tracked objects.
+        // topic_prefix/
+        //
+        // the topic_prefix is pulled from the configuration later, when
+        // we have access to Frigate's HTTP API while we are onlining the
+        // server Thing
+        // We must retain this prefix as it may change in a multi-instance
+        // configuration
 
-                try {
-                    this.trackedObjs = apiHelper.getTrackedObjects();
-                    // drop this in our server channel for info
-                    Gson gson = new Gson();
-                    String jsonArray = gson.toJson(this.trackedObjs);
-                    logger.info("Tracked objects: {}", jsonArray);
-                    updateState(CHANNEL_TRACKEDOBJECTS,
-                            ((@NonNull frigateSVRChannelState) (this.Channels.get(CHANNEL_TRACKEDOBJECTS)))
-                                    .toState(jsonArray));
-                } catch (Exception e) {
-                    logger.error("unable to retrieve tracked object list ({})", e.getMessage());
-                    return;
-                }
+        String old_topicPrefix = this.svrState.topicPrefix;
+        this.svrState.topicPrefix = frigateConfig.block.mqtt.topicPrefix;
+        if (this.svrState.topicPrefix.isBlank() || this.svrState.topicPrefix.isEmpty()) {
+            this.svrState.topicPrefix = "frigate"; // the default
+        }
+
+        // client_id
+        //
+        // We won't be able to access the HTTP API with multiple instances unless we know this
+        // a-priori, so we pull it from our config and rely on the user
+        // to set it correctly
+        // In restart, the clientID from the frigate config may have changed.
+        // We use the clientID as the prefix for internal URLs.
+        // So we must update our URL prefix based on the config
+
+        this.svrState.clientID = frigateConfig.block.mqtt.clientID;
+
+        // URLChannelPrefix
+        //
+        // This is the prefix prepended to URLs in channels and will change depending
+        // on whether the forwarder is enabled, and if the configuration useRelativeURLs
+        // is set to true.
+        //
+        // If the forwarder is enabled, the URL, whether relative or absolute, will
+        // appear to point to the openHAB instance. If the forwarder is disabled, the
+        // URL, whether relative or absolute, will point to the Frigate instance.
+        // Forwarder, relative: prefix=<clientID>/forwarder
+        // Forwarder, qualified: prefix=<OH host>/<clientID>/forwarder
+        // No forwarder, relative: prefix=/
+        // No forwarder, qualified: prefix=<Frigate host>/
+
+        String urlpfx = "/";
+
+        if (config.enableAPIForwarder == true) {
+            urlpfx += frigateConfig.block.mqtt.clientID;
+            if (!config.useRelativeURLs) {
+                urlpfx = this.networkHelper.GetHostBaseURL() + urlpfx;
+            }
+        } else {
+            if (!config.useRelativeURLs) {
+                urlpfx = config.serverURL + urlpfx;
+            }
+        }
+        this.svrState.URLChannelPrefix = urlpfx;
 
-                // cocked, locked and ready to rock..
+        // Ok, here we have comms. Now since we are transitioning from
+        // OFFLINE to ONLINE, it is entirely possible the MQTT topic prefix
+        // has changed, so ensure we update this.
 
-                logger.info("onlining Frigate server thing");
+        // Now, yank the topic prefix out of the config. If for some reason
+        // Frigate doesn't feed it to us, assume it is 'frigate'. The topic
+        // prefix may not be the same as a client_id for a given instance of
+        // Frigate
 
-                updateStatus(ThingStatus.ONLINE);
+        if (!old_topicPrefix.equals(this.svrState.topicPrefix)) {
+            UnsubscribeMQTTTopics(old_topicPrefix);
+        }
+        SubscribeMQTTTopics(this.svrState.topicPrefix);
 
-                // now we can start the streaming server - if enabled in config.
-                // This is for the birdseye view - we do this before we
-                // notify the cameras that we are online. Seems to avoid a conflict
+        // this.svrState.status = "online";
+        this.svrState.Cameras = this.frigateConfig.block.GetCameraList();
+        return true;
+    }
 
-                this.StartStream();
+    ///////////////////////////////////////////////////////////////////
+    // OnlineServer
+    //
+    // We have everything we need from Frigate: bring the Thing online.
 
-                updateState(CHANNEL_API_VERSION,
-                        ((@NonNull frigateSVRChannelState) (this.Channels.get(CHANNEL_API_VERSION)))
-                                .toState(this.version));
-                updateState(CHANNEL_UI_URL, ((@NonNull frigateSVRChannelState) (this.Channels.get(CHANNEL_UI_URL)))
-                        .toState(this.httpHelper.getBaseURL()));
-            }
+    private void OnlineServer(List<String> objs) {
 
-            // if we are online, we need to ping to check. The config from Frigate does not change at
-            // runtime.
+        this.trackedObjs = objs;
 
-            if (this.getThing().getStatus().equals(ThingStatus.ONLINE)) {
+        // drop this in our server channel for info
+        Gson gson = new Gson();
+        String jsonArray = gson.toJson(this.trackedObjs);
+        logger.info("Tracked objects: {}", jsonArray);
+        updateState(CHANNEL_TRACKEDOBJECTS,
+                ((@NonNull frigateSVRChannelState) (this.Channels.get(CHANNEL_TRACKEDOBJECTS))).toState(jsonArray));
 
-                logger.debug("keep-alive: device is online");
+        // cocked, locked and ready to rock..
 
-                // Get the version string.
+        logger.info("onlining Frigate server thing");
 
-                ResultStruct r = this.httpHelper.runGet("/api/version");
+        updateStatus(ThingStatus.ONLINE);
 
-                if (!r.rc) {
+        // now we can start the streaming server - if enabled in config.
+        // This is for the birdseye view - we do this before we
+        // notify the cameras that we are online. Seems to avoid a conflict
 
-                    // we need to offline ourselves, but leave the pinger working. At this stage
-                    // stop the streaming servers but do not unsubscribe our MQTT transports.
+        this.StartStream();
 
-                    logger.debug("server-thing: keepalive - stopping streaming server");
-                    this.httpServlet.StopServer();
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, "@text/error.servercomm");
-                } else {
+        updateState(CHANNEL_API_VERSION,
+                ((@NonNull frigateSVRChannelState) (this.Channels.get(CHANNEL_API_VERSION))).toState(this.version));
+        updateState(CHANNEL_UI_URL, ((@NonNull frigateSVRChannelState) (this.Channels.get(CHANNEL_UI_URL)))
+                .toState(this.httpHelper.getBaseURL()));
+    }
 
-                    this.version = r.message;
+    ///////////////////////////////////////////////////////////////////
+    // CheckServerOnline
+    //
+    // We are online: ping Frigate for the version to check it is still
+    // there. If not, we offline ourselves.
 
-                    // fire the first keepalive
+    private CompletableFuture<@Nullable Void> CheckServerOnline(int generation) {
 
-                    this.httpServlet.PokeMe();
-                }
+        logger.debug("keep-alive: device is online");
+
+        // Get the version string.
+
+        return TrackServerCheck(this.httpHelper.runGetAsync("/api/version").thenAcceptAsync(r -> {
+            if (!IsCurrentCheck(generation)) {
+                return;
             }
+            if (!r.rc) {
 
-        } while (false);
+                // we need to offline ourselves, but leave the pinger working. At this stage
+                // stop the streaming servers but do not unsubscribe our MQTT transports.
+
+                logger.debug("server-thing: keepalive - stopping streaming server");
+                this.httpServlet.StopServer();
+                this.httpHelper.GetCache().Clear();
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, "@text/error.servercomm");
+            } else {
+
+                this.version = r.message;
+
+                // fire the first keepalive
+
+                this.httpServlet.PokeMe();
+                PublishQueueStats();
+                if (isLinked(CHANNEL_API_CACHE_STATS)) {
+                    updateState(CHANNEL_API_CACHE_STATS,
+                            ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_API_CACHE_STATS))
+                                    .toState(this.httpHelper.GetCache().GetStats()));
+                }
+            }
+        }, scheduler));
     }
 
     ////////////////////////////////////////////////////////////////////////////
@@ -494,6 +706,7 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
             ((@NonNull ScheduledFuture<?>) servercheck).cancel(true);
             servercheck = null;
         }
+        CancelServerChecks();
         logger.debug("server-thing: stopping streaming server (BridgeGoingOffline)");
         this.httpServlet.StopServer();
     }
@@ -562,11 +775,75 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
         // with a different topic_prefix for its own messages, so we need to be able
         // to unsubscribe and resubscribe
 
+        BuildTopicDispatch(prefix);
+
         if (this.MQTTConnection != null) {
             logger.debug("subscribing to topic: {}", prefix + "/" + MQTT_AVAILABILITY_SUFFIX);
             ((@NonNull MqttBrokerConnection) this.MQTTConnection).subscribe(prefix + "/" + MQTT_AVAILABILITY_SUFFIX,
                     this);
+
+            // events, reviews and stats are shared by all cameras; we parse them once
+            // here and route them to the cameras. Events and reviews are subscribed
+            // according to what the cameras want.
+
+            ((@NonNull MqttBrokerConnection) this.MQTTConnection).subscribe(prefix + "/" + MQTT_STATS_SUFFIX, this);
+            synchronized (this.feedTopics) {
+                this.feedPrefix = prefix;
+            }
+            UpdateFeedSubscriptions();
+
+            // and the server messages in our map
+
+            for (String suffix : this.MQTTGettersToChannels.keySet()) {
+                ((@NonNull MqttBrokerConnection) this.MQTTConnection).subscribe(prefix + "/" + suffix, this);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    // BuildTopicDispatch
+    //
+    // Build the table mapping each topic we subscribe to onto its handler,
+    // for the given topic prefix.
+
+    private void BuildTopicDispatch(String prefix) {
+
+        Map<String, frigateSVRTopicHandler> dispatch = new HashMap<String, frigateSVRTopicHandler>();
+
+        dispatch.put(prefix + "/" + MQTT_AVAILABILITY_SUFFIX, frigateSVRTopicHandler.Text(state -> {
+            HandleAvailability(state);
+        }));
+
+        // Events. These are for all cameras; decode once and route to the
+        // camera named in the event (if we have it).
+
+        dispatch.put(prefix + "/" + MQTT_EVENTS_SUFFIX, payload -> {
+            RouteEvent(payload);
+        });
+
+        // Review segments; as events.
+
+        dispatch.put(prefix + "/" + MQTT_REVIEWS_SUFFIX, payload -> {
+            RouteReview(payload);
+        });
+
+        // Stats. Again these cover all cameras - decode once and give
+        // each camera its own slice.
+
+        dispatch.put(prefix + "/" + MQTT_STATS_SUFFIX, frigateSVRTopicHandler.Droppable(payload -> {
+            RouteStats(payload);
+        }));
+
+        // Now any server messages in our map.
+
+        for (var getter : this.MQTTGettersToChannels.entrySet()) {
+            String channel = getter.getValue();
+            dispatch.put(prefix + "/" + getter.getKey(), frigateSVRTopicHandler.Text(state -> {
+                updateState(channel, ((@NonNull frigateSVRChannelState) this.Channels.get(channel)).toState(state));
+            }));
         }
+
+        this.topicDispatch = Map.copyOf(dispatch);
     }
 
     ////////////////////////////////////////////////////////////////////
@@ -585,6 +862,58 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
             logger.debug("unsubscribing from topic: {}", prefix + "/" + MQTT_AVAILABILITY_SUFFIX);
             ((@NonNull MqttBrokerConnection) this.MQTTConnection).unsubscribe(prefix + "/" + MQTT_AVAILABILITY_SUFFIX,
                     this);
+            ((@NonNull MqttBrokerConnection) this.MQTTConnection).unsubscribe(prefix + "/" + MQTT_STATS_SUFFIX, this);
+            synchronized (this.feedTopics) {
+                for (String topic : this.feedTopics) {
+                    ((@NonNull MqttBrokerConnection) this.MQTTConnection).unsubscribe(topic, this);
+                }
+                this.feedTopics.clear();
+                this.feedPrefix = null;
+            }
+            for (String suffix : this.MQTTGettersToChannels.keySet()) {
+                ((@NonNull MqttBrokerConnection) this.MQTTConnection).unsubscribe(prefix + "/" + suffix, this);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    // UpdateFeedSubscriptions
+    //
+    // Subscribe to the events and reviews topics if any camera wants them,
+    // and unsubscribe if none do. The events topic in particular carries
+    // a lot of traffic.
+
+    private void UpdateFeedSubscriptions() {
+
+        MqttBrokerConnection conn = this.MQTTConnection;
+        synchronized (this.feedTopics) {
+            String prefix = this.feedPrefix;
+            if (prefix == null || conn == null) {
+                return;
+            }
+            Set<String> wanted = new HashSet<String>();
+            for (frigateSVRCameraHandler cam : this.cameraRoutes.values()) {
+                if (cam.WantsEvents()) {
+                    wanted.add(prefix + "/" + MQTT_EVENTS_SUFFIX);
+                }
+                if (cam.WantsReviews()) {
+                    wanted.add(prefix + "/" + MQTT_REVIEWS_SUFFIX);
+                }
+            }
+            for (String topic : wanted) {
+                if (this.feedTopics.add(topic)) {
+                    logger.debug("subscribing to topic: {}", topic);
+                    conn.subscribe(topic, this);
+                }
+            }
+            this.feedTopics.removeIf(topic -> {
+                if (wanted.contains(topic)) {
+                    return false;
+                }
+                logger.debug("unsubscribing from topic: {}", topic);
+                conn.unsubscribe(topic, this);
+                return true;
+            });
         }
     }
 
@@ -597,6 +926,37 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
         return trackedObjs;
     }
 
+    ///////////////////////////////////////////////////////////////////////////
+    // RegisterCamera
+    //
+    // Called by a camera Thing when it comes online, so that we can route
+    // events and stats for the camera to it.
+
+    void RegisterCamera(String cameraName, frigateSVRCameraHandler handler) {
+        logger.debug("registering camera {} for event routing", cameraName);
+        this.cameraRoutes.put(cameraName, handler);
+        UpdateFeedSubscriptions();
+        if (config.eventJournalMaxAge > 0 && handler.TakeJournal()) {
+            this.journal.thenAcceptAsync(j -> {
+                if (j != null) {
+                    ReplayJournal(j, cameraName, handler);
+                }
+            }, scheduler);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // UnregisterCamera
+    //
+    // Called by a camera Thing when it goes offline. We only remove the
+    // route if it still points to the caller.
+
+    void UnregisterCamera(String cameraName, frigateSVRCameraHandler handler) {
+        logger.debug("unregistering camera {} from event routing", cameraName);
+        this.cameraRoutes.remove(cameraName, handler);
+        UpdateFeedSubscriptions();
+    }
+
     ///////////////////////////////////////////////////////////////////
     // SendActionEvent
     //
@@ -668,78 +1028,250 @@ public class frigateSVRServerHandler extends BaseBridgeHandler
     @Override
     public void processMessage(String topic, byte[] payload) {
 
-        String[] bits = topic.split("/");
+        // Everything we want is in the dispatch table. Anything else
+        // isn't for us. We are on the MQTT client's thread here, so we
+        // just queue the message for processing.
 
-        do {
-            if (bits.length < 2) {
-                break; // ignore anything without details
-            }
+        frigateSVRTopicHandler handler = this.topicDispatch.get(topic);
+        if (handler != null) {
+            this.messageQueue.Submit(() -> handler.Process(payload), handler.IsDroppable());
+        }
+    }
 
-            if (!bits[0].equals(this.svrState.topicPrefix)) {
-                break; // it ain't for us.
-            }
+    ///////////////////////////////////////////////////////////////////
+    // PublishQueueStats
+    //
+    // Publish the total depth of our and the cameras' message queues,
+    // and the total number of messages dropped since startup.
+
+    private void PublishQueueStats() {
+
+        int depth = this.messageQueue.GetDepth();
+        long dropped = this.messageQueue.GetDropped();
+        for (frigateSVRCameraHandler cam : this.cameraRoutes.values()) {
+            depth += cam.GetMessageQueue().GetDepth();
+            dropped += cam.GetMessageQueue().GetDropped();
+        }
+        updateState(CHANNEL_MQTT_QUEUE_DEPTH, ((@NonNull frigateSVRChannelState) this.Channels
+                .get(CHANNEL_MQTT_QUEUE_DEPTH)).toState(String.valueOf(depth)));
+        updateState(CHANNEL_MQTT_DROPPED, ((@NonNull frigateSVRChannelState) this.Channels.get(CHANNEL_MQTT_DROPPED))
+                .toState(String.valueOf(dropped)));
+    }
 
-            // We may or may not have a payload
+    ///////////////////////////////////////////////////////////////////
+    // HandleAvailability
+    //
+    // We remain handling the availability topic, even when the Frigate server appears
+    // offline. When it comes back, if the topic prefix hasn't changed, it will post an
+    // 'online' message.
+
+    private void HandleAvailability(String state) {
 
-            String sPayload = new String(payload, StandardCharsets.UTF_8);
+        if (state.equals("online")) {
 
-            // Here, we must at least have bits[1].
+            // This message gets posted once Frigate is online. Sometimes it
+            // may get posted when the thing is still online. However, it is useless
+            // as an indicator that the server has just come online, as it seems
+            // to be posted _before_ the HTTP API is available. So we don't use
+            // it as a tell-tale for availability.
+            //
+            // Note: this is never triggered simply on a new connection, only
+            // when the server itself restarts. This is why we need to handle
+            // it as a special case.
 
-            // We remain handling the availability topic, even when the Frigate server appears
-            // offline. When it comes back, if the topic prefix hasn't changed, it will post an
-            // 'online' message.
+            logger.debug("received 'online' message from Frigate server");
+            // we do not online the device here. Frigate sends this thing before
+            // the HTTP services are ready.
+
+        }
+        if (state.equals("offline")) {
+
+            // According to the docs, this should be posted when Frigate stops.
+            // However, we can't rely on it as I couldn't get Frigate to actually
+            // post this. So we handle it anyway just in case. If the thing is
+            // offline, leave it alone. Otherwise just set it offline.
+            // We keep all our MQTT state so we can pick up the 'online' message and
+            // the pinger is kept running
+            // However, as I could not get Frigate to actually send this, there
+            // is a possibility it may post this while the HTTP API is alive. Thus,
+            // the keepalive may restore the online status, only to switch back
+            // to offline once the server's keepalive stops responding
+
+            logger.debug("received offline message from Frigate svr");
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, "@text/error.serveroffline");
+        }
+    }
 
-            if (bits[1].equals(MQTT_AVAILABILITY_SUFFIX)) {
+    ///////////////////////////////////////////////////////////////////
+    // RouteEvent
+    //
+    // Decode an event once, and pass it to the camera concerned. The
+    // decoder gives up as soon as it sees the camera name if the camera
+    // has no Thing, so we don't waste time on events no-one wants. The
+    // record is reused, so the camera must be done with it on return.
+    // The record carries the raw message; the camera only turns this into
+    // text if the event JSON channel is linked.
 
-                if (sPayload.equals("online")) {
+    private void RouteEvent(byte[] payload) {
 
-                    // This message gets posted once Frigate is online. Sometimes it
-                    // may get posted when the thing is still online. However, it is useless
-                    // as an indicator that the server has just come online, as it seems
-                    // to be posted _before_ the HTTP API is available. So we don't use
-                    // it as a tell-tale for availability.
-                    //
-                    // Note: this is never triggered simply on a new connection, only
-                    // when the server itself restarts. This is why we need to handle
-                    // it as a special case.
+        if (this.cameraRoutes.isEmpty()) {
+            return;
+        }
 
-                    logger.debug("received 'online' message from Frigate server");
-                    // we do not online the device here. Frigate sends this thing before
-                    // the HTTP services are ready.
+        synchronized (this.eventRecord) {
+            try {
+                if (this.eventDecoder.Decode(payload, this.wantsEvents, this.haveBefore, this.eventRecord)) {
+                    frigateSVRCameraHandler handler = this.cameraRoutes.get(this.eventRecord.camera);
+                    if (handler != null) {
+                        handler.ProcessEvent(this.eventRecord);
+                    }
+                    if (this.eventRecord.type.equals("end")) {
+                        JournalEvent(this.eventRecord);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("unable to parse event ({})", e.getMessage());
+            }
+        }
+    }
 
+    ///////////////////////////////////////////////////////////////////
+    // OpenJournal
+    //
+    // Open the event journal in our area of the openHAB user data
+    // folder. This reads the whole file, so it is done in the background.
+    // If we can't, we carry on without it.
+
+    private void OpenJournal() {
+        CloseJournal();
+        if (config.eventJournalSize > 0) {
+            Path path = Paths.get(OpenHAB.getUserDataFolder(), JOURNAL_FOLDER,
+                    this.getThing().getUID().getId() + ".journal");
+            int size = config.eventJournalSize;
+            this.journal = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new frigateSVREventJournal(path, size);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("unable to open event journal ({}); events will not be kept across restarts",
+                            e.getMessage());
+                    return null;
                 }
-                if (sPayload.equals("offline")) {
-
-                    // According to the docs, this should be posted when Frigate stops.
-                    // However, we can't rely on it as I couldn't get Frigate to actually
-                    // post this. So we handle it anyway just in case. If the thing is
-                    // offline, leave it alone. Otherwise just set it offline.
-                    // We keep all our MQTT state so we can pick up the 'online' message and
-                    // the pinger is kept running
-                    // However, as I could not get Frigate to actually send this, there
-                    // is a possibility it may post this while the HTTP API is alive. Thus,
-                    // the keepalive may restore the online status, only to switch back
-                    // to offline once the server's keepalive stops responding
-
-                    logger.debug("received offline message from Frigate svr");
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                            "@text/error.serveroffline");
+            }, scheduler);
+        }
+    }
+
+    private void CloseJournal() {
+        CompletableFuture<@Nullable frigateSVREventJournal> opening = this.journal;
+        this.journal = CompletableFuture.completedFuture(null);
+        opening.thenAccept(j -> {
+            if (j != null) {
+                j.Close();
+            }
+        });
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // JournalEvent
+    //
+    // Write a completed event to the journal, if it is open. If the message
+    // is too big for a journal record, we write just the fields we use.
+
+    private void JournalEvent(frigateSVREventRecord evt) {
+        frigateSVREventJournal j = this.journal.getNow(null);
+        if (j != null && !j.Append(System.currentTimeMillis(), evt.raw)) {
+            if (!j.Append(System.currentTimeMillis(), frigateSVREventJournal.Encode(evt))) {
+                logger.debug("event {} too big for the event journal", evt.id);
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // ReplayJournal
+    //
+    // Pass the journalled events for a camera that are within the replay
+    // age to the camera, oldest first. The camera restores its event
+    // history from these, and its event channels from the last. We use a
+    // decoder of our own, so that live events are not held up while we
+    // work through the journal; it stops early at other cameras' events.
+
+    private void ReplayJournal(frigateSVREventJournal j, String cameraName, frigateSVRCameraHandler handler) {
+
+        long since = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(config.eventJournalMaxAge);
+        frigateSVREventDecoder decoder = new frigateSVREventDecoder(this.dictionary);
+        frigateSVREventRecord rec = new frigateSVREventRecord();
+        List<frigateSVREventRecord> restored = new ArrayList<frigateSVREventRecord>();
+        j.Replay(since, payload -> {
+            try {
+                if (decoder.Decode(payload, cam -> cam.equals(cameraName), rec)) {
+                    restored.add(rec.copy());
                 }
-                break;
+            } catch (IOException e) {
+                logger.debug("skipping bad journal record ({})", e.getMessage());
             }
+        });
+        if (this.cameraRoutes.get(cameraName) == handler) {
+            logger.debug("camera {}: replaying {} events from journal", cameraName, restored.size());
+            handler.RestoreEvents(restored);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // RouteReview
+    //
+    // As RouteEvent, for review segments. The decoder is shared with
+    // events, so we hold the same lock.
 
-            // Now check for any server messages in our map.
+    private void RouteReview(byte[] payload) {
 
-            if (this.MQTTGettersToChannels.containsKey(bits[1])) {
-                String channel = this.MQTTGettersToChannels.get(bits[1]);
-                if (channel != null) {
-                    updateState(channel,
-                            ((@NonNull frigateSVRChannelState) this.Channels.get(channel)).toState(sPayload));
+        if (this.cameraRoutes.isEmpty()) {
+            return;
+        }
+
+        synchronized (this.eventRecord) {
+            try {
+                if (this.eventDecoder.DecodeReview(payload, this.wantsReviews, this.reviewRecord)) {
+                    frigateSVRCameraHandler handler = this.cameraRoutes.get(this.reviewRecord.camera);
+                    if (handler != null) {
+                        handler.ProcessReview(this.reviewRecord);
+                    }
                 }
-                break;
+            } catch (Exception e) {
+                logger.warn("unable to parse review ({})", e.getMessage());
             }
+        }
+    }
 
-        } while (false);
+    ///////////////////////////////////////////////////////////////////
+    // RouteStats
+    //
+    // Decode the stats message once, and hand each registered camera
+    // its own figures. Cameras not in the message get null figures.
+    // If statsPublishInterval is set, stats arriving sooner than this
+    // after the last ones we published are dropped without decoding.
+
+    private void RouteStats(byte[] payload) {
+
+        if (this.cameraRoutes.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (config.statsPublishInterval > 0 && this.lastStatsPublish != 0
+                && (now - this.lastStatsPublish) < TimeUnit.SECONDS.toNanos(config.statsPublishInterval)) {
+            return;
+        }
+        this.lastStatsPublish = now;
+
+        Map<String, @Nullable String[]> cameras = Collections.emptyMap();
+        try {
+            cameras = frigateSVRStatsDecoder.Decode(payload, this.cameraRoutes::containsKey);
+        } catch (Exception e) {
+            logger.warn("unable to parse stats ({})", e.getMessage());
+        }
+
+        for (var route : this.cameraRoutes.entrySet()) {
+            route.getValue().ProcessStats(cameras.get(route.getKey()));
+        }
     }
 
     //////////////////////////////////////////////////////////////////
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.handlers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link mqtt.frigateSVRTopicHandler} is the interface for the entries in the
+ * MQTT topic dispatch tables of the camera and server Things. The tables are
+ * built when the Thing goes online, mapping each full topic we subscribe to
+ * onto the handler for it, so that incoming messages need no topic parsing.
+ *
+ * Handlers are given the raw payload. Most topics carry text, and their handlers
+ * are wrapped with Text() so the payload is decoded for them; others (such as
+ * snapshots) carry binary data that must not be decoded at all.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+@FunctionalInterface
+public interface frigateSVRTopicHandler {
+
+    /////////////////////////////////////////////////////////////////////
+    /// Process
+    ///
+    /// Handle a message on the topic.
+
+    public void Process(byte[] payload);
+
+    /////////////////////////////////////////////////////////////////////
+    /// IsDroppable
+    ///
+    /// True if messages on the topic may be dropped when we are under
+    /// load. This is so for topics where the next message supersedes
+    /// the last, such as stats and snapshots.
+
+    public default boolean IsDroppable() {
+        return false;
+    }
+
+    /////////////////////////////////////////////////////////////////////
+    /// Text
+    ///
+    /// Wrap a handler for a text topic. The payload is decoded as UTF-8
+    /// before being handed over.
+
+    public static frigateSVRTopicHandler Text(Consumer<String> handler) {
+        return payload -> handler.accept(new String(payload, StandardCharsets.UTF_8));
+    }
+
+    /////////////////////////////////////////////////////////////////////
+    /// Droppable
+    ///
+    /// Mark a handler as droppable under load.
+
+    public static frigateSVRTopicHandler Droppable(frigateSVRTopicHandler handler) {
+        return new frigateSVRTopicHandler() {
+            @Override
+            public void Process(byte[] payload) {
+                handler.Process(payload);
+            }
+
+            @Override
+            public boolean IsDroppable() {
+                return true;
+            }
+        };
+    }
+}
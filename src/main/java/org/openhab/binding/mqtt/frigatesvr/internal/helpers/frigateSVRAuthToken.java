@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+
+/**
+ * The {@link mqtt.frigateSVRAuthToken} holds the token authorizing our calls to
+ * the Frigate API, and gets a new one when it is needed.
+ *
+ * Only one login is made at a time: callers needing a token while a login is
+ * in progress wait for that login. A caller whose token was refused is given
+ * the token that replaced it if there is one, rather than logging in again.
+ * The token is renewed in the background shortly before it expires, so that
+ * callers don't normally have to wait for a login at all.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRAuthToken {
+
+    // renew this long before the token expires (or half way through its life,
+    // if it is shorter), and retry a failed renewal after RETRY.
+
+    private static final long RENEW_BEFORE = TimeUnit.SECONDS.toMillis(60);
+    private static final long RETRY = TimeUnit.SECONDS.toMillis(15);
+
+    private final Logger logger = LoggerFactory.getLogger(frigateSVRAuthToken.class);
+    private final Supplier<CompletableFuture<@Nullable String>> login;
+    private final @Nullable Scheduler scheduler;
+    private volatile String token = "";
+    private volatile long expires = 0;
+    private long renewAt = 0;
+    private boolean stopped = false;
+    private @Nullable CompletableFuture<Boolean> inFlight = null;
+    private Scheduler.@Nullable Task renewal = null;
+
+    ////////////////////////////////////////////////////////////////////////
+    // Constructor
+    //
+    // 'login' logs in to Frigate, completing with the new token or with null
+    // if the login failed. The scheduler runs the background renewals; with
+    // none, the token is only renewed once it has expired.
+
+    public frigateSVRAuthToken(Supplier<CompletableFuture<@Nullable String>> login, @Nullable Scheduler scheduler) {
+        this.login = login;
+        this.scheduler = scheduler;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Get
+    //
+    // The current token (which may have expired).
+
+    public String Get() {
+        return this.token;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Valid
+    //
+    // Completes with true once we have a token that has not expired,
+    // logging in if we must; with false if we can't get one.
+
+    public CompletableFuture<Boolean> Valid() {
+        if (!this.token.isEmpty() && System.currentTimeMillis() < this.expires) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return Refresh();
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Rejected
+    //
+    // Frigate has refused 'used'. If that is still our token, we drop it and
+    // log in again; if it has been replaced since the caller took it, the
+    // caller can simply try again with the new one.
+
+    public CompletableFuture<Boolean> Rejected(String used) {
+        synchronized (this) {
+            if (used.equals(this.token)) {
+                this.token = "";
+                this.expires = 0;
+            }
+        }
+        return Valid();
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Refresh
+    //
+    // Log in for a new token, unless a login is already in progress, in
+    // which case the caller waits for that one.
+
+    private CompletableFuture<Boolean> Refresh() {
+        CompletableFuture<Boolean> f;
+        synchronized (this) {
+            if (this.stopped) {
+                return CompletableFuture.completedFuture(false);
+            }
+            CompletableFuture<Boolean> current = this.inFlight;
+            if (current != null) {
+                return current;
+            }
+            f = new CompletableFuture<Boolean>();
+            this.inFlight = f;
+        }
+        logger.debug("auth: requesting new token");
+        CompletableFuture<@Nullable String> l;
+        try {
+            l = this.login.get();
+        } catch (Exception e) {
+            l = CompletableFuture.failedFuture(e);
+        }
+        l.whenComplete((tok, ex) -> {
+            boolean ok = (ex == null && tok != null) ? TakeToken(tok) : false;
+            synchronized (this) {
+                this.inFlight = null;
+            }
+            ScheduleRenewal(ok);
+            f.complete(ok);
+        });
+        return f;
+    }
+
+    // Decode and keep a new token. Returns false if it can't be decoded.
+
+    private boolean TakeToken(String tok) {
+        try {
+            Date exp = JWT.decode(tok).getExpiresAt();
+            long now = System.currentTimeMillis();
+            long expires = (exp != null) ? exp.getTime() : Long.MAX_VALUE;
+            synchronized (this) {
+                this.token = tok;
+                this.expires = expires;
+                this.renewAt = expires - Math.min(RENEW_BEFORE, (expires - now) / 2);
+            }
+            logger.debug("auth token is valid (exp {})", (exp != null) ? exp.toString() : "never");
+            return true;
+        } catch (JWTDecodeException k) {
+            // we don't have a valid token anyway; return false
+            logger.error("auth: token can not be decoded");
+            return false;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // ScheduleRenewal
+    //
+    // Set the timer for the next background renewal: shortly before the
+    // token expires after a login, or a little later after a failure (as
+    // long as the token we have is still good).
+
+    private synchronized void ScheduleRenewal(boolean ok) {
+        Scheduler s = this.scheduler;
+        Scheduler.Task t = this.renewal;
+        if (t != null) {
+            t.cancel();
+            this.renewal = null;
+        }
+        long now = System.currentTimeMillis();
+        long at = ok ? this.renewAt : now + RETRY;
+        if (s == null || this.stopped || this.token.isEmpty() || at >= this.expires
+                || this.expires == Long.MAX_VALUE) {
+            return;
+        }
+        this.renewal = s.schedule(() -> {
+            logger.debug("auth: renewing token before it expires");
+            Refresh();
+        }, Math.max(at - now, 0), TimeUnit.MILLISECONDS);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Stop
+    //
+    // Drop the token and stop renewing it (when the server goes away).
+
+    public synchronized void Stop() {
+        this.stopped = true;
+        this.token = "";
+        this.expires = 0;
+        Scheduler.Task t = this.renewal;
+        if (t != null) {
+            t.cancel();
+            this.renewal = null;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVREventRecord;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRReviewRecord;
+
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * The {@link mqtt.frigateSVREventDecoder} pulls the fields we use out of a Frigate
+ * event message without building a JSON tree. Frigate sends events for all
+ * cameras on the one topic, so the decoder stops as soon as it has seen the
+ * camera name if the event is for a camera we don't have. Review segment
+ * messages are decoded in the same way.
+ *
+ * The decoder keeps its buffers from one message to the next, so it must only
+ * be used by one thread at a time.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVREventDecoder {
+
+    private final StringBuilder sb = new StringBuilder();
+    private final Utf8Reader input = new Utf8Reader();
+    private final frigateSVRStringDictionary dictionary;
+
+    public frigateSVREventDecoder(frigateSVRStringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Decode
+    //
+    // Decode the event payload into the record. Returns false if the event
+    // is for a camera not accepted by wantCamera, and throws if the event is
+    // malformed. On a true return the record holds the event.
+
+    public boolean Decode(byte[] payload, Predicate<String> wantCamera, frigateSVREventRecord rec)
+            throws IOException {
+        return Decode(payload, wantCamera, (cam, id) -> false, rec);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Decode
+    //
+    // As above. Once the camera and object id in the 'before' block are
+    // known, haveBefore is asked if the camera still has the 'before' values
+    // from the last event for the object. If so, the rest of the block is
+    // skipped rather than read, and the record is marked as such. A 'before'
+    // of null (as the journal writes for such an event) is taken the same
+    // way.
+
+    public boolean Decode(byte[] payload, Predicate<String> wantCamera, BiPredicate<String, String> haveBefore,
+            frigateSVREventRecord rec) throws IOException {
+
+        rec.reset();
+        rec.raw = payload;
+        boolean gotBefore = false;
+        boolean gotAfter = false;
+
+        try (JsonReader reader = new JsonReader(this.input.Reset(payload))) {
+
+            // lenient, as the tree parser was. Frigate is written in Python, whose JSON
+            // encoder will happily emit NaN.
+
+            reader.setStrictness(Strictness.LENIENT);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "before":
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                            rec.beforeSkipped = true;
+                        } else if (!DecodeBefore(reader, wantCamera, haveBefore, rec)) {
+                            return false;
+                        }
+                        gotBefore = true;
+                        break;
+                    case "after":
+                        if (!DecodePart(reader, wantCamera, rec, rec.after, true)) {
+                            return false;
+                        }
+                        gotAfter = true;
+                        break;
+                    case "type":
+                        rec.type = this.dictionary.Intern(reader.nextString());
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+        }
+
+        if (!gotBefore || !gotAfter || rec.type.isEmpty() || rec.camera.isEmpty()) {
+            throw new IOException("incomplete event");
+        }
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // DecodeBefore
+    //
+    // Decode the 'before' block, as DecodePart, but stop reading values
+    // and skip to the end of the block as soon as haveBefore says the
+    // camera has them already. Frigate sends the id and camera first, so
+    // little is read before we know.
+
+    private boolean DecodeBefore(JsonReader reader, Predicate<String> wantCamera,
+            BiPredicate<String, String> haveBefore, frigateSVREventRecord rec) throws IOException {
+
+        @Nullable String id = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            int idx = frigateSVREventRecord.IndexOf(name);
+            if (idx >= 0) {
+                rec.before[idx] = ReadValue(reader, frigateSVREventRecord.INTERNED[idx]);
+                continue;
+            } else if (name.equals("camera")) {
+                if (!ReadCamera(reader, wantCamera, rec)) {
+                    return false;
+                }
+            } else if (name.equals("id")) {
+                id = reader.nextString();
+            } else {
+                reader.skipValue();
+                continue;
+            }
+            if (id != null && !rec.camera.isEmpty() && haveBefore.test(rec.camera, id)) {
+                Arrays.fill(rec.before, null);
+                rec.beforeSkipped = true;
+                while (reader.hasNext()) {
+                    reader.nextName();
+                    reader.skipValue();
+                }
+                break;
+            }
+        }
+        reader.endObject();
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // DecodePart
+    //
+    // Decode one of the 'before' or 'after' blocks. Both carry the camera
+    // name; we check it the first time we see it, and bail if we don't
+    // want it. The id is only taken from the current ('after') state.
+
+    private boolean DecodePart(JsonReader reader, Predicate<String> wantCamera, frigateSVREventRecord rec,
+            @Nullable String[] values, boolean isCurrent) throws IOException {
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            int idx = frigateSVREventRecord.IndexOf(name);
+            if (idx >= 0) {
+                values[idx] = ReadValue(reader, frigateSVREventRecord.INTERNED[idx]);
+            } else if (name.equals("camera")) {
+                if (!ReadCamera(reader, wantCamera, rec)) {
+                    return false;
+                }
+            } else if (isCurrent && name.equals("id")) {
+                rec.id = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return true;
+    }
+
+    private boolean ReadCamera(JsonReader reader, Predicate<String> wantCamera, frigateSVREventRecord rec)
+            throws IOException {
+        String cam = reader.nextString();
+        if (rec.camera.isEmpty()) {
+            if (!wantCamera.test(cam)) {
+                return false;
+            }
+            rec.camera = this.dictionary.Intern(cam);
+        }
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // DecodeReview
+    //
+    // Decode a review segment payload into the record. As Decode, but we
+    // only want the current ('after') state of the review.
+
+    public boolean DecodeReview(byte[] payload, Predicate<String> wantCamera, frigateSVRReviewRecord rec)
+            throws IOException {
+
+        rec.reset();
+        rec.raw = payload;
+
+        try (JsonReader reader = new JsonReader(this.input.Reset(payload))) {
+            reader.setStrictness(Strictness.LENIENT);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "after":
+                        if (!DecodeReviewPart(reader, wantCamera, rec, false)) {
+                            return false;
+                        }
+                        break;
+                    case "type":
+                        rec.type = this.dictionary.Intern(reader.nextString());
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+        }
+
+        if (rec.type.isEmpty() || rec.camera.isEmpty()) {
+            throw new IOException("incomplete review");
+        }
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // DecodeReviewPart
+    //
+    // Decode the 'after' block of a review, or its 'data' sub-block
+    // which holds the objects and zones.
+
+    private boolean DecodeReviewPart(JsonReader reader, Predicate<String> wantCamera, frigateSVRReviewRecord rec,
+            boolean isData) throws IOException {
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            int idx = frigateSVRReviewRecord.IndexOf(name);
+            if (idx >= 0) {
+                rec.values[idx] = ReadValue(reader, frigateSVRReviewRecord.INTERNED[idx]);
+            } else if (!isData && name.equals("camera")) {
+                String cam = reader.nextString();
+                if (!wantCamera.test(cam)) {
+                    return false;
+                }
+                rec.camera = this.dictionary.Intern(cam);
+            } else if (!isData && name.equals("id")) {
+                rec.id = reader.nextString();
+            } else if (!isData && name.equals("data") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                DecodeReviewPart(reader, wantCamera, rec, true);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // ReadValue
+    //
+    // Returns the JSON text of the next value, or null for a JSON null. This
+    // gives the same text as JsonElement.toString() would on the tree. The
+    // reader has already made a String of a number, so we use that as it is.
+    // Otherwise the text is built up, and if the value is to be interned it
+    // is looked up in the dictionary as it stands, so that we only make a
+    // String of it if the dictionary doesn't have it.
+
+    private @Nullable String ReadValue(JsonReader reader, boolean intern) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return reader.nextBoolean() ? "true" : "false";
+            default:
+                this.sb.setLength(0);
+                CopyValue(reader, this.sb);
+                return intern ? this.dictionary.Intern(this.sb) : this.sb.toString();
+        }
+    }
+
+    private static void CopyValue(JsonReader reader, StringBuilder out) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+                Quote(reader.nextString(), out);
+                break;
+            case NUMBER:
+                out.append(reader.nextString());
+                break;
+            case BOOLEAN:
+                out.append(reader.nextBoolean());
+                break;
+            case NULL:
+                reader.nextNull();
+                out.append("null");
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                out.append('[');
+                for (boolean first = true; reader.hasNext(); first = false) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    CopyValue(reader, out);
+                }
+                reader.endArray();
+                out.append(']');
+                break;
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                out.append('{');
+                for (boolean first = true; reader.hasNext(); first = false) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    Quote(reader.nextName(), out);
+                    out.append(':');
+                    CopyValue(reader, out);
+                }
+                reader.endObject();
+                out.append('}');
+                break;
+            default:
+                throw new IOException("unexpected JSON token " + reader.peek());
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Quote
+    //
+    // Quote and escape a string as Gson's JsonWriter does.
+
+    private static void Quote(String s, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                case '\u2028':
+                case '\u2029':
+                    out.append(String.format("\\u%04x", (int) c));
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                    break;
+            }
+        }
+        out.append('"');
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Utf8Reader
+    //
+    // Reads the characters of a UTF-8 message. Unlike an InputStreamReader,
+    // this is reset for each message rather than made anew, and has no
+    // buffers of its own. Malformed bytes are read as U+FFFD.
+
+    private static class Utf8Reader extends Reader {
+
+        private static final byte[] NONE = new byte[0];
+
+        private byte[] in = NONE;
+        private int pos = 0;
+        private int pending = -1; // second half of a surrogate pair
+
+        Utf8Reader Reset(byte[] payload) {
+            this.in = payload;
+            this.pos = 0;
+            this.pending = -1;
+            return this;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int n = 0;
+            if (this.pending >= 0) {
+                cbuf[off + n++] = (char) this.pending;
+                this.pending = -1;
+            }
+            byte[] b = this.in;
+            while (n < len && this.pos < b.length) {
+                int c = b[this.pos] & 0xff;
+                if (c < 0x80) {
+                    this.pos++;
+                    cbuf[off + n++] = (char) c;
+                    continue;
+                }
+                int need = (c >= 0xf0) ? 3 : (c >= 0xe0) ? 2 : (c >= 0xc2) ? 1 : -1;
+                if (need < 0 || c > 0xf4) {
+                    this.pos++;
+                    cbuf[off + n++] = '\ufffd';
+                    continue;
+                }
+                int cp = c & (0x3f >> need);
+                int i = 1;
+                for (; i <= need && this.pos + i < b.length && (b[this.pos + i] & 0xc0) == 0x80; i++) {
+                    cp = (cp << 6) | (b[this.pos + i] & 0x3f);
+                }
+                if (i <= need) {
+                    this.pos += i; // cut short: the lot is one bad character
+                    cbuf[off + n++] = '\ufffd';
+                    continue;
+                }
+                if ((need == 2 && cp < 0x800) || (need == 3 && (cp < 0x10000 || cp > 0x10ffff))) {
+                    this.pos++; // overlong, or out of range
+                    cbuf[off + n++] = '\ufffd';
+                    continue;
+                }
+                if (need == 2 && Character.isSurrogate((char) cp)) {
+                    this.pos += i; // half a surrogate pair
+                    cbuf[off + n++] = '\ufffd';
+                    continue;
+                }
+                this.pos += i;
+                if (cp < 0x10000) {
+                    cbuf[off + n++] = (char) cp;
+                } else {
+                    cbuf[off + n++] = Character.highSurrogate(cp);
+                    if (n < len) {
+                        cbuf[off + n++] = Character.lowSurrogate(cp);
+                    } else {
+                        this.pending = Character.lowSurrogate(cp);
+                    }
+                }
+            }
+            return (n == 0 && this.pos >= b.length) ? -1 : n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVREventRecord;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * The {@link mqtt.frigateSVREventHistory} is a fixed-size ring of the most recent
+ * completed events for a camera, kept in a compact form so that rules can ask
+ * for recent events without going to the Frigate HTTP API. Once the ring is
+ * full, the oldest event is overwritten.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVREventHistory {
+
+    private static final int IDX_LABEL = frigateSVREventRecord.IndexOf("label");
+    private static final int IDX_SUBLABEL = frigateSVREventRecord.IndexOf("sub_label");
+    private static final int IDX_TOP_SCORE = frigateSVREventRecord.IndexOf("top_score");
+    private static final int IDX_START_TIME = frigateSVREventRecord.IndexOf("start_time");
+    private static final int IDX_END_TIME = frigateSVREventRecord.IndexOf("end_time");
+    private static final int IDX_ZONES = frigateSVREventRecord.IndexOf("entered_zones");
+    private static final int IDX_HAS_SNAPSHOT = frigateSVREventRecord.IndexOf("has_snapshot");
+
+    // A completed event. These are allocated once, and overwritten as the
+    // ring wraps.
+
+    private static class Entry {
+        String id = "";
+        String label = "";
+        String subLabel = "";
+        String[] zones = new String[0];
+        double topScore;
+        double startTime;
+        double endTime;
+        boolean hasClip;
+        boolean hasSnapshot;
+    }
+
+    private final Entry[] ring;
+    private int next = 0;
+    private int count = 0;
+
+    public frigateSVREventHistory(int size) {
+        this.ring = new Entry[Math.max(size, 0)];
+        for (int i = 0; i < this.ring.length; i++) {
+            this.ring[i] = new Entry();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Add
+    //
+    // Add a completed ('end') event to the ring.
+
+    public synchronized void Add(frigateSVREventRecord evt) {
+
+        if (this.ring.length == 0) {
+            return;
+        }
+
+        Fill(this.ring[this.next], evt);
+        this.next = (this.next + 1) % this.ring.length;
+        this.count = Math.min(this.count + 1, this.ring.length);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Restore
+    //
+    // Put older completed events (oldest first, from the event journal)
+    // in the ring ahead of those added since, as far as there is room.
+    // Events already in the ring are left out.
+
+    public synchronized void Restore(List<frigateSVREventRecord> older) {
+
+        int size = this.ring.length;
+        Set<String> have = new HashSet<String>();
+        for (int i = 1; i <= this.count; i++) {
+            have.add(this.ring[(this.next - i + size) % size].id);
+        }
+        List<frigateSVREventRecord> wanted = older.stream().filter(evt -> !have.contains(evt.id)).toList();
+        int take = Math.min(wanted.size(), size - this.count);
+        if (take <= 0) {
+            return;
+        }
+
+        // the entries we have move along to the end, and the restored
+        // events go in front of them, in the entries that were free.
+
+        Entry[] moved = new Entry[size];
+        for (int i = 0; i < this.count; i++) {
+            moved[take + i] = this.ring[(this.next - this.count + i + size) % size];
+        }
+        for (int i = 0; i < take; i++) {
+            moved[i] = this.ring[(this.next + i) % size];
+            Fill(moved[i], wanted.get(wanted.size() - take + i));
+        }
+        for (int i = take + this.count; i < size; i++) {
+            moved[i] = this.ring[(this.next + i - this.count) % size];
+        }
+        System.arraycopy(moved, 0, this.ring, 0, size);
+        this.count += take;
+        this.next = this.count % size;
+    }
+
+    private static void Fill(Entry e, frigateSVREventRecord evt) {
+        e.id = evt.id;
+        e.label = AsString(evt.after[IDX_LABEL]);
+        e.subLabel = AsString(evt.after[IDX_SUBLABEL]);
+        e.zones = AsStrings(evt.after[IDX_ZONES]);
+        e.topScore = AsDouble(evt.after[IDX_TOP_SCORE]);
+        e.startTime = AsDouble(evt.after[IDX_START_TIME]);
+        e.endTime = AsDouble(evt.after[IDX_END_TIME]);
+        e.hasClip = evt.hasClip();
+        e.hasSnapshot = "true".equals(evt.after[IDX_HAS_SNAPSHOT]);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Query
+    //
+    // Returns a JSON array of the events matching the query, newest first.
+    // An empty label or zone (or 'any') matches all; times are epoch seconds
+    // against the event start, with 0 meaning no limit. At most 'limit'
+    // events are returned (0 for no limit).
+
+    public synchronized String Query(String label, String zone, double minScore, double from, double to,
+            int limit) {
+
+        boolean anyLabel = label.isEmpty() || label.equals("any");
+        boolean anyZone = zone.isEmpty() || zone.equals("any");
+        JsonArray rc = new JsonArray();
+
+        for (int i = 1; i <= this.count; i++) {
+            Entry e = this.ring[(this.next - i + this.ring.length) % this.ring.length];
+            if ((!anyLabel && !label.equals(e.label)) || (!anyZone && !InZone(e, zone)) || e.topScore < minScore
+                    || (from > 0 && e.startTime < from) || (to > 0 && e.startTime > to)) {
+                continue;
+            }
+            rc.add(ToJson(e));
+            if (limit > 0 && rc.size() >= limit) {
+                break;
+            }
+        }
+        return rc.toString();
+    }
+
+    public synchronized void Clear() {
+        this.next = 0;
+        this.count = 0;
+    }
+
+    private static boolean InZone(Entry e, String zone) {
+        for (String z : e.zones) {
+            if (z.equals(zone)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static JsonObject ToJson(Entry e) {
+        JsonObject o = new JsonObject();
+        JsonArray zones = new JsonArray();
+        for (String z : e.zones) {
+            zones.add(z);
+        }
+        o.addProperty("id", e.id);
+        o.addProperty("label", e.label);
+        o.addProperty("sub_label", e.subLabel);
+        o.add("zones", zones);
+        o.addProperty("top_score", e.topScore);
+        o.addProperty("start_time", e.startTime);
+        o.addProperty("end_time", e.endTime);
+        o.addProperty("has_clip", e.hasClip);
+        o.addProperty("has_snapshot", e.hasSnapshot);
+        return o;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // AsString, AsStrings, AsDouble
+    //
+    // Convert the JSON text held in an event record. Anything we can't use
+    // becomes an empty string, empty list or zero. The text is as the event
+    // decoder wrote it, so the strings and lists are read straight from it
+    // rather than parsed into a tree.
+
+    private static String AsString(@Nullable String json) {
+        if (json == null || json.isEmpty()) {
+            return "";
+        }
+        char c = json.charAt(0);
+        if (c == '[' || c == '{') {
+            return "";
+        }
+        if (c != '"') {
+            return json; // a number or boolean, as its text
+        }
+        if (json.indexOf('\\') < 0) {
+            return (json.length() >= 2) ? json.substring(1, json.length() - 1) : "";
+        }
+        StringBuilder sb = new StringBuilder();
+        return (Unquote(json, 0, sb) == json.length()) ? sb.toString() : "";
+    }
+
+    private static String[] AsStrings(@Nullable String json) {
+        if (json == null || json.length() < 2 || json.charAt(0) != '[') {
+            return new String[0];
+        }
+        List<String> rc = new ArrayList<String>();
+        StringBuilder sb = new StringBuilder();
+        int pos = 1;
+        while (pos < json.length() && json.charAt(pos) != ']') {
+            if (json.charAt(pos) == '"') {
+                sb.setLength(0);
+                pos = Unquote(json, pos, sb);
+                if (pos < 0) {
+                    return new String[0];
+                }
+                rc.add(sb.toString());
+            } else {
+                int end = pos;
+                while (end < json.length() && ",]".indexOf(json.charAt(end)) < 0) {
+                    end++;
+                }
+                String item = json.substring(pos, end);
+                if (item.isEmpty() || item.charAt(0) == '[' || item.charAt(0) == '{' || item.equals("null")) {
+                    return new String[0];
+                }
+                rc.add(item); // a number or boolean, as its text
+                pos = end;
+            }
+            if (pos < json.length() && json.charAt(pos) == ',') {
+                pos++;
+            }
+        }
+        return rc.toArray(new String[0]);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Unquote
+    //
+    // Read the JSON string starting at the quote at 'pos' into sb. Returns
+    // the index just past the closing quote, or -1 if the string is bad.
+
+    private static int Unquote(String json, int pos, StringBuilder sb) {
+        for (int i = pos + 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                return i + 1;
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (++i >= json.length()) {
+                return -1;
+            }
+            switch (json.charAt(i)) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 >= json.length()) {
+                        return -1;
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(json, i + 1, i + 5, 16));
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                    i += 4;
+                    break;
+                default:
+                    sb.append(json.charAt(i)); // '"', '\\' or '/'
+                    break;
+            }
+        }
+        return -1;
+    }
+
+    private static double AsDouble(@Nullable String json) {
+        try {
+            return (json != null) ? Double.parseDouble(json) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
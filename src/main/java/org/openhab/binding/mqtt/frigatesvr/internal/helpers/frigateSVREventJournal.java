@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVREventRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonPrimitive;
+
+/**
+ * The {@link mqtt.frigateSVREventJournal} is an append-only journal of completed
+ * events for a server Thing, kept in a memory-mapped file so that it survives a
+ * restart of openHAB. The file holds a fixed number of fixed-size records, so
+ * its size is capped; once full, the oldest record is overwritten.
+ *
+ * Each record holds the time it was written, the event message and a CRC of
+ * both. A record that fails its CRC (one we were part way through writing when
+ * we stopped) is skipped on replay. The record times are kept in memory as
+ * well, as an index for finding where to start a replay.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVREventJournal {
+
+    public static final int RECORD_SIZE = 4096;
+
+    private static final int MAGIC = 0x46535632;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_HEADER_SIZE = 16;
+
+    // record field offsets; the CRC covers the time, the length and the
+    // message
+
+    private static final int REC_LENGTH = 8;
+    private static final int REC_CRC = 12;
+
+    // header field offsets
+
+    private static final int HDR_MAGIC = 0;
+    private static final int HDR_RECORD_SIZE = 4;
+    private static final int HDR_CAPACITY = 8;
+    private static final int HDR_NEXT = 12;
+    private static final int HDR_COUNT = 16;
+
+    private final Logger logger = LoggerFactory.getLogger(frigateSVREventJournal.class);
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long[] times;
+    private final CRC32C crc = new CRC32C();
+    private final int capacity;
+    private int next;
+    private int count;
+
+    // The number of records appended since we opened, counting those
+    // already there; this numbers the records so that a replay can follow
+    // them while more are appended.
+
+    private long appended;
+
+    ////////////////////////////////////////////////////////////////////////
+    // Constructor
+    //
+    // Open (or create) the journal file with room for 'capacity' records.
+    // If the file exists but was written with a different layout or size,
+    // it is started afresh.
+
+    public frigateSVREventJournal(Path path, int capacity) throws IOException {
+        this.path = path;
+        this.capacity = Math.max(capacity, 1);
+        this.times = new long[this.capacity];
+
+        Path dir = path.getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = HEADER_SIZE + (long) this.capacity * RECORD_SIZE;
+        if (this.channel.size() > size) {
+            this.channel.truncate(size);
+        }
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        this.next = this.buffer.getInt(HDR_NEXT);
+        this.count = this.buffer.getInt(HDR_COUNT);
+        if (this.buffer.getInt(HDR_MAGIC) != MAGIC || this.buffer.getInt(HDR_RECORD_SIZE) != RECORD_SIZE
+                || this.buffer.getInt(HDR_CAPACITY) != this.capacity || this.next < 0 || this.next >= this.capacity
+                || this.count < 0 || this.count > this.capacity) {
+            logger.debug("starting new event journal {}", path);
+            this.next = 0;
+            this.count = 0;
+            this.buffer.putInt(HDR_MAGIC, MAGIC);
+            this.buffer.putInt(HDR_RECORD_SIZE, RECORD_SIZE);
+            this.buffer.putInt(HDR_CAPACITY, this.capacity);
+            WriteHeader();
+        } else {
+            logger.debug("opened event journal {} with {} events", path, this.count);
+        }
+
+        // build the time index. The search needs it in order, so a bad
+        // record (or one from before the clock was put back) takes the time
+        // of the one before it.
+
+        long last = Long.MIN_VALUE;
+        int bad = 0;
+        for (int i = 0; i < this.count; i++) {
+            int offset = Offset(Slot(i));
+            long time = this.buffer.getLong(offset);
+            if (!IsValid(offset)) {
+                time = last;
+                bad++;
+            }
+            last = Math.max(last, time);
+            this.times[Slot(i)] = last;
+        }
+        if (bad > 0) {
+            logger.debug("event journal {} has {} bad records; these will be skipped", path, bad);
+        }
+        this.appended = this.count;
+    }
+
+    private static int Offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    // The CRC of the record at 'offset', over its header fields and the
+    // given length of message
+
+    private int Crc(int offset, int length) {
+        this.crc.reset();
+        this.crc.update(this.buffer.slice(offset, REC_CRC));
+        this.crc.update(this.buffer.slice(offset + RECORD_HEADER_SIZE, length));
+        return (int) this.crc.getValue();
+    }
+
+    private boolean IsValid(int offset) {
+        int length = this.buffer.getInt(offset + REC_LENGTH);
+        return length >= 0 && length <= RECORD_SIZE - RECORD_HEADER_SIZE
+                && this.buffer.getInt(offset + REC_CRC) == Crc(offset, length);
+    }
+
+    private void WriteHeader() {
+        this.buffer.putInt(HDR_NEXT, this.next);
+        this.buffer.putInt(HDR_COUNT, this.count);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Append
+    //
+    // Append an event message to the journal. Returns false if it is too
+    // big for a record. The header is only updated once the record is
+    // complete, but once the journal is full the record we write over is
+    // one the header already counts; if we stop part way through, its CRC
+    // no longer matches and it is skipped when replayed.
+
+    public synchronized boolean Append(long time, byte[] payload) {
+
+        if (payload.length > RECORD_SIZE - RECORD_HEADER_SIZE) {
+            return false;
+        }
+
+        int offset = Offset(this.next);
+        this.buffer.putLong(offset, time);
+        this.buffer.putInt(offset + REC_LENGTH, payload.length);
+        this.buffer.put(offset + RECORD_HEADER_SIZE, payload);
+        this.buffer.putInt(offset + REC_CRC, Crc(offset, payload.length));
+        this.times[this.next] = (this.count > 0) ? Math.max(time, this.times[Slot(this.count - 1)]) : time;
+
+        this.next = (this.next + 1) % this.capacity;
+        this.count = Math.min(this.count + 1, this.capacity);
+        this.appended++;
+        WriteHeader();
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Replay
+    //
+    // Pass each event message written at or after 'since' (epoch ms) to the
+    // consumer, oldest first. The start is found from the time index.
+    // Records failing their CRC are skipped.
+    //
+    // We only hold the journal while reading each record, not while the
+    // consumer deals with it, so that events can still be appended. The
+    // replay stops at the records there when it started; any overwritten
+    // in the meantime are skipped.
+
+    public void Replay(long since, Consumer<byte[]> consumer) {
+        long seq;
+        long end;
+        synchronized (this) {
+            end = this.appended;
+            seq = end - this.count + FindFirst(since);
+        }
+        for (; seq < end; seq++) {
+            byte[] payload = Read(seq, since);
+            if (payload != null) {
+                consumer.accept(payload);
+            }
+        }
+    }
+
+    // The message of a record by number, if it is still there, intact and
+    // written at or after 'since'. The time index can place a record later
+    // than it was written (see above), so we check its own time as well.
+
+    private synchronized byte @Nullable [] Read(long seq, long since) {
+        if (seq < this.appended - this.count) {
+            return null;
+        }
+        int offset = Offset(Slot((int) (seq - (this.appended - this.count))));
+        if (!IsValid(offset) || this.buffer.getLong(offset) < since) {
+            return null;
+        }
+        byte[] payload = new byte[this.buffer.getInt(offset + REC_LENGTH)];
+        this.buffer.get(offset + RECORD_HEADER_SIZE, payload);
+        return payload;
+    }
+
+    // The slot holding the i'th oldest record
+
+    private int Slot(int i) {
+        return (this.next - this.count + i + this.capacity) % this.capacity;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // FindFirst
+    //
+    // Binary search of the time index for the oldest record written at or
+    // after 'since'. Returns count if there is none.
+
+    private int FindFirst(long since) {
+        int lo = 0;
+        int hi = this.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.times[Slot(mid)] < since) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Close
+    //
+    // Flush the journal to disk and close the file. The mapping itself is
+    // released when the buffer is collected.
+
+    public synchronized void Close() {
+        try {
+            this.buffer.force();
+            this.channel.close();
+        } catch (IOException e) {
+            logger.warn("unable to close event journal {} ({})", this.path, e.getMessage());
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Encode
+    //
+    // Build a cut-down event message from a decoded event, holding only the
+    // fields we use, for events whose message is too big for a record.
+    // The event decoder reads this as it would the original. If the
+    // 'before' block was not decoded, it is written as null.
+
+    public static byte[] Encode(frigateSVREventRecord evt) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"type\":").append(new JsonPrimitive(evt.type));
+        if (evt.beforeSkipped) {
+            sb.append(",\"before\":null");
+        } else {
+            EncodePart(sb, "before", evt, evt.before);
+        }
+        EncodePart(sb, "after", evt, evt.after);
+        sb.append('}');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void EncodePart(StringBuilder sb, String name, frigateSVREventRecord evt,
+            @Nullable String[] values) {
+        sb.append(",\"").append(name).append("\":{\"camera\":").append(new JsonPrimitive(evt.camera));
+        sb.append(",\"id\":").append(new JsonPrimitive(evt.id));
+        for (int i = 0; i < frigateSVREventRecord.FIELDS.length; i++) {
+            String v = values[i];
+            sb.append(",\"").append(frigateSVREventRecord.FIELDS[i]).append("\":").append((v != null) ? v : "null");
+        }
+        sb.append('}');
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.http.HttpClientTransportOverHTTP;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link mqtt.frigateSVRHTTPClientRegistry} hands out the HTTP clients used
+ * to talk to Frigate servers. Server Things with the same client settings share
+ * a client, and with it the client's threads and connection pool. Clients are
+ * counted as they are handed out and released, and stopped when the last
+ * server Thing using one releases it.
+ *
+ * There is one registry for the binding, held by the handler factory.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRHTTPClientRegistry {
+
+    private final Logger logger = LoggerFactory.getLogger(frigateSVRHTTPClientRegistry.class);
+
+    // A client, and the number of users holding it
+
+    private static class Entry {
+        final String key;
+        final HttpClient client;
+        int refs = 0;
+
+        Entry(String key, HttpClient client) {
+            this.key = key;
+            this.client = client;
+        }
+    }
+
+    private final Map<String, Entry> clients = new HashMap<String, Entry>();
+
+    ////////////////////////////////////////////////////////////////////////
+    // Acquire
+    //
+    // Returns a started client with the given settings, creating it if no
+    // one else is using one. trustAll accepts self-signed certificates. The
+    // idle timeout is in ms. Each call must be matched by a Release.
+
+    public synchronized HttpClient Acquire(boolean trustAll, int maxConnections, int idleTimeout,
+            boolean tcpKeepAlive) throws Exception {
+
+        String key = String.format("%b/%d/%d/%b", trustAll, maxConnections, idleTimeout, tcpKeepAlive);
+        Entry e = this.clients.get(key);
+        if (e == null) {
+            SslContextFactory.Client sslContextFactory = new SslContextFactory.Client();
+            if (trustAll) {
+                // disable host verification; encryption only.
+                sslContextFactory.setTrustAll(true);
+                sslContextFactory.setEndpointIdentificationAlgorithm(null);
+            }
+            HttpClient client = new HttpClient(new HttpClientTransportOverHTTP() {
+                @Override
+                protected void configure(HttpClient client, SocketChannel channel) throws IOException {
+                    super.configure(client, channel);
+                    channel.socket().setKeepAlive(tcpKeepAlive);
+                }
+            }, sslContextFactory);
+            client.setMaxConnectionsPerDestination(Math.max(maxConnections, 1));
+            client.setIdleTimeout(Math.max(idleTimeout, 0));
+            client.start();
+            logger.debug("started HTTP client {}", key);
+            e = new Entry(key, client);
+            this.clients.put(key, e);
+        }
+        e.refs++;
+        return e.client;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Release
+    //
+    // Give back a client. If no-one else is using it, it is stopped.
+
+    public void Release(HttpClient client) {
+        Entry stop = null;
+        synchronized (this) {
+            for (Entry e : this.clients.values()) {
+                if (e.client == client) {
+                    if (--e.refs <= 0) {
+                        this.clients.remove(e.key);
+                        stop = e;
+                    }
+                    break;
+                }
+            }
+        }
+        if (stop != null) {
+            Stop(stop);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // StopAll
+    //
+    // Stop every client (when the binding is stopped).
+
+    public void StopAll() {
+        List<Entry> stop;
+        synchronized (this) {
+            stop = new ArrayList<Entry>(this.clients.values());
+            this.clients.clear();
+        }
+        for (Entry e : stop) {
+            Stop(e);
+        }
+    }
+
+    private void Stop(Entry e) {
+        try {
+            e.client.stop();
+            logger.debug("stopped HTTP client {}", e.key);
+        } catch (Exception ex) {
+            logger.warn("unable to stop HTTP client ({})", ex.getMessage());
+        }
+    }
+}
@@ -14,32 +14,35 @@ package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
 
 import java.net.HttpCookie;
 import java.net.URI;
-import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpContentResponse;
 import org.eclipse.jetty.client.api.ContentResponse;
 import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.BufferingResponseListener;
 import org.eclipse.jetty.client.util.StringContentProvider;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.MimeTypes;
-import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.openhab.core.library.types.RawType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.exceptions.JWTDecodeException;
-import com.auth0.jwt.interfaces.DecodedJWT;
-
 /**
  * The {@link mqtt.frigateSVRHTTPHelper} is a helper class providing access to HTTP services
  *
@@ -48,16 +51,23 @@ import com.auth0.jwt.interfaces.DecodedJWT;
 @NonNullByDefault
 public class frigateSVRHTTPHelper {
 
+    // headers that can change the response to a GET
+
+    private static final HttpHeader[] COALESCE_HEADERS = { HttpHeader.RANGE, HttpHeader.IF_RANGE,
+            HttpHeader.IF_NONE_MATCH, HttpHeader.IF_MODIFIED_SINCE, HttpHeader.ACCEPT, HttpHeader.ACCEPT_ENCODING,
+            HttpHeader.AUTHORIZATION, HttpHeader.COOKIE };
+
     private @Nullable HttpClient client = null;
+    private @Nullable frigateSVRHTTPClientRegistry registry = null;
     private String baseurl = "";
     private final Logger logger = LoggerFactory.getLogger(frigateSVRHTTPHelper.class);
     private int timeout = 100;
-    private String authtok = "";
     private String username = "";
     private String password = "";
     private boolean authNeeded = false;
-    private boolean authTokValid = false; // token is valid
-    private Date tokExp = new Date();
+    private volatile frigateSVRAuthToken auth = new frigateSVRAuthToken(this::Login, null);
+    private final frigateSVRResponseCache cache = new frigateSVRResponseCache();
+    private final Map<String, CompletableFuture<ContentResponse>> inFlight = new ConcurrentHashMap<>();
 
     public frigateSVRHTTPHelper() {
     }
@@ -65,10 +75,13 @@ public class frigateSVRHTTPHelper {
     /////////////////////////////////////////////////////////////////////////////
     // configure
     //
-    // Configure at initialization
+    // Configure at initialization. The client comes from the binding's client
+    // registry, and is shared with other servers using the same settings. Any
+    // client we held from an earlier configuration is given back.
 
     public void configure(String address, int timeout, boolean requireAuth, String username, String password,
-            boolean selfsigned) {
+            boolean selfsigned, frigateSVRHTTPClientRegistry registry, int maxConnections, int idleTimeout,
+            boolean tcpKeepAlive) {
 
         this.setBaseURL(address);
 
@@ -83,35 +96,60 @@ public class frigateSVRHTTPHelper {
             this.username = "";
             this.password = "";
         }
-        this.tokExp = new Date();
-        this.authTokValid = false;
-        this.authtok = "";
+        this.cache.Clear();
 
         logger.debug("configuring: username {} addr {}", username, address);
         logger.debug("auth needed: {}", (this.authNeeded) ? "yes" : "no");
 
-        SslContextFactory.Client sslContextFactory = new SslContextFactory.Client();
-
-        if (selfsigned) {
-            // disable host verification; encryption only.
-            sslContextFactory.setTrustAll(true);
-            sslContextFactory.setEndpointIdentificationAlgorithm(null);
-        }
-
-        this.client = new HttpClient(sslContextFactory);
-
+        release();
         try {
-            this.client.start();
+            HttpClient c = registry.Acquire(selfsigned, maxConnections, idleTimeout, tcpKeepAlive);
+            this.client = c;
+            this.registry = registry;
+            this.auth = new frigateSVRAuthToken(this::Login, c.getScheduler());
         } catch (Exception e) {
             logger.error("Failed to start HTTP client: {}", e.getMessage());
         }
-        // no longer use single client
-        // this.client = httpClient;
         if (timeout > 0) {
             this.timeout = timeout;
         }
     }
 
+    /////////////////////////////////////////////////////////////////////////////
+    // SetCacheBudget
+    //
+    // Set the number of bytes of Frigate API responses we may cache (zero
+    // turns the cache off).
+
+    public void SetCacheBudget(long bytes) {
+        this.cache.SetBudget(bytes);
+    }
+
+    /////////////////////////////////////////////////////////////////////////////
+    // GetCache
+    //
+    // The response cache, for its statistics and to clear it.
+
+    public frigateSVRResponseCache GetCache() {
+        return this.cache;
+    }
+
+    /////////////////////////////////////////////////////////////////////////////
+    // release
+    //
+    // Give our client back to the registry (when the server goes away).
+
+    public void release() {
+        this.auth.Stop();
+        HttpClient c = this.client;
+        frigateSVRHTTPClientRegistry r = this.registry;
+        this.client = null;
+        this.registry = null;
+        if (c != null && r != null) {
+            r.Release(c);
+        }
+    }
+
     /////////////////////////////////////////////////////////////////////////////
     // getBaseURL
     //
@@ -179,98 +217,104 @@ public class frigateSVRHTTPHelper {
     }
 
     /////////////////////////////////////////////////////////////////////////////
-    // getAuth
+    // Login
     //
-    // Obtain an authorization token from the server
+    // Log in to the server for a new authorization token. The future completes
+    // with the token, or with null if we didn't get one. This is only called
+    // by our frigateSVRAuthToken, which makes sure we only log in once at a
+    // time.
 
-    private boolean getAuth() {
-        boolean rc = false;
-        this.authTokValid = false;
+    private CompletableFuture<@Nullable String> Login() {
+        Request request;
         try {
-            Request request = ((@NonNull HttpClient) this.client).POST(buildURL("api/login"));
-            request.timeout(timeout, TimeUnit.MILLISECONDS);
-            request.header(HttpHeader.CONTENT_TYPE, MimeTypes.Type.APPLICATION_JSON.asString());
-            request.header(HttpHeader.AUTHORIZATION, "Basic");
-            request.content(new StringContentProvider(
-                    String.format("{\"user\":\"%s\",\"password\":\"%s\"}", this.username, this.password)));
-            logger.debug("Content:{}",
-                    String.format("{\"user\":\"%s\",\"password\":\"%s\"}", this.username, this.password));
+            request = ((@NonNull HttpClient) this.client).POST(buildURL("api/login"));
+        } catch (Exception e) {
+            logger.error("auth: HTTP helper POST called in unconfigured state (message {})", e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        request.timeout(timeout, TimeUnit.MILLISECONDS);
+        request.header(HttpHeader.CONTENT_TYPE, MimeTypes.Type.APPLICATION_JSON.asString());
+        request.header(HttpHeader.AUTHORIZATION, "Basic");
+        request.content(new StringContentProvider(
+                String.format("{\"user\":\"%s\",\"password\":\"%s\"}", this.username, this.password)));
+        logger.debug("Content:{}",
+                String.format("{\"user\":\"%s\",\"password\":\"%s\"}", this.username, this.password));
+        return Send(request).handle((response, ex) -> {
+            if (ex != null) {
+                if (ex instanceof TimeoutException) {
+                    logger.error("auth: timeoutException: Call to Frigate Server timed out after {} msec", timeout);
+                } else {
+                    logger.error("auth: ExecutionException: {}", ex.getMessage());
+                }
+                return null;
+            }
+            return TakeAuthToken(response);
+        });
+    }
+
+    /////////////////////////////////////////////////////////////////////////////
+    // TakeAuthToken
+    //
+    // Take the authorization token from the server's response to a login
+    // request. Returns null if there isn't one.
+
+    private @Nullable String TakeAuthToken(ContentResponse response) {
+        if (response.getStatus() == HttpStatus.OK_200) {
+
+            // we need the set-cookie header
             try {
-                ContentResponse response = request.send();
-                if (response.getStatus() == HttpStatus.OK_200) {
-
-                    // we need the set-cookie header
-                    try {
-                        List<HttpCookie> cookies = HttpCookie.parse(response.getHeaders().get("set-cookie"));
-                        if (!cookies.isEmpty()) {
-                            HttpCookie first = cookies.getFirst();
-                            if (first.getName().equals("frigate_token")) {
-                                this.authtok = first.getValue();
-                                logger.debug("obtained auth token: {}", this.authtok);
-
-                                try {
-                                    DecodedJWT token = JWT.decode(this.authtok);
-                                    this.tokExp = token.getExpiresAt();
-                                    logger.debug("auth token is valid (exp {})", this.tokExp.toString());
-                                    this.authTokValid = true;
-                                    rc = true;
-                                } catch (JWTDecodeException k) {
-                                    // we don't have a valid token anyway; return false
-                                    logger.error("auth: token can not be decoded");
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        logger.error("Auth failed - header parse {}", e.getMessage());
+                List<HttpCookie> cookies = HttpCookie.parse(response.getHeaders().get("set-cookie"));
+                if (!cookies.isEmpty()) {
+                    HttpCookie first = cookies.getFirst();
+                    if (first.getName().equals("frigate_token")) {
+                        logger.debug("obtained auth token: {}", first.getValue());
+                        return first.getValue();
                     }
-                } else {
-                    logger.error("Auth failed; return status {}", response.getStatus());
                 }
-            } catch (TimeoutException e) {
-                logger.error("auth: timeoutException: Call to Frigate Server timed out after {} msec", timeout);
-            } catch (ExecutionException e) {
-                logger.error("auth: ExecutionException: {}", e.getMessage());
-            } catch (InterruptedException e) {
-                logger.error("auth: InterruptedException: {}", e.getMessage());
-                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Auth failed - header parse {}", e.getMessage());
             }
-        } catch (Exception e) {
-            logger.error("auth: HTTP helper POST called in unconfigured state (message {})", e.getMessage());
+        } else {
+            logger.error("Auth failed; return status {}", response.getStatus());
         }
-        return rc;
+        return null;
     }
 
     /////////////////////////////////////////////////////////////////////////////
     // CheckAuthState
     //
-    // Check and verify our auth token. If invalid, or about to expire, trigger
-    // the request for a new one. If we can't get one, then return false. If
-    // we return true, the auth token in the class is valid.
-    // Note: if the password is blank, we assume auth is not needed and
-    // proceed anyway
+    // Check and verify our auth token. If invalid, or expired, wait for a new
+    // one. If we can't get one, then return false. If we return true, the
+    // auth token is valid.
 
     private boolean CheckAuthState() {
+        return CheckAuthStateAsync().join();
+    }
 
-        boolean rc = false;
-
-        // If we don't need auth, we return true. Otherwise, we check
-        // for a valid token that has, or is about to, expire and try
-        // and renew it.
-
-        if (this.authNeeded) {
-            logger.info("Auth required");
-            if (!this.authTokValid || this.tokExp.before(new Date())) {
-                rc = this.getAuth();
-            } else {
-                logger.info("authtok valid and not expired");
-                rc = true; // valid and not expired
-            }
+    /////////////////////////////////////////////////////////////////////////////
+    // CheckAuthStateAsync
+    //
+    // As CheckAuthState, without waiting for the server if we need a new
+    // token.
 
-        } else {
-            logger.info("auth not required");
-            rc = true;
+    private CompletableFuture<Boolean> CheckAuthStateAsync() {
+        if (!this.authNeeded) {
+            return CompletableFuture.completedFuture(true);
         }
-        return rc;
+        return this.auth.Valid();
+    }
+
+    /////////////////////////////////////////////////////////////////////////////
+    // Reauthorize
+    //
+    // The server refused the token sent with a request. Completes with true
+    // when we have a token to try again with: the one that has replaced it
+    // since the request was sent if there is one, or else a new one.
+
+    private CompletableFuture<Boolean> Reauthorize(ContentResponse response) {
+        String sent = response.getRequest().getHeaders().get(HttpHeader.AUTHORIZATION);
+        String used = (sent != null && sent.startsWith("Bearer ")) ? sent.substring(7) : "";
+        return this.auth.Rejected(used);
     }
 
     /////////////////////////////////////////////////////////////////////////////
@@ -291,46 +335,49 @@ public class frigateSVRHTTPHelper {
     ////////////////////////////////////////////////////////////////////////////
     // SendFrigateRequest
     //
-    // Send a request to Frigate, dealing with authorization where necessary
+    // Send a request to Frigate, dealing with authorization where necessary.
+    // A GET identical to one already waiting for Frigate is not sent; the
+    // caller shares the response to the first.
 
     public ContentResponse SendFrigateRequest(Request request)
             throws TimeoutException, ExecutionException, InterruptedException {
+        if (!HttpMethod.GET.is(request.getMethod())) {
+            return SendFrigateRequestNow(request);
+        }
+        return Coalesce(CoalesceKey(request), () -> SendFrigateRequestNow(request));
+    }
+
+    private ContentResponse SendFrigateRequestNow(Request request)
+            throws TimeoutException, ExecutionException, InterruptedException {
 
         // We deal with this slightly differently - if the API can't
         // be authorized, rather than present the caller with a boolean
         // and then have to
 
-        if (this.authNeeded) {
-            request.header(HttpHeader.AUTHORIZATION, "Bearer " + this.authtok);
-        }
         request.timeout(timeout, TimeUnit.MILLISECONDS);
         if (CheckAuthState()) {
+            if (this.authNeeded) {
+                request.header(HttpHeader.AUTHORIZATION, "Bearer " + this.auth.Get());
+            }
             ContentResponse response = request.send();
-            for (int idx = 0; idx < 2; idx++) {
-                if (response.getStatus() == HttpStatus.OK_200) {
-                    break;
-                } else {
-                    if ((response.getStatus() == HttpStatus.UNAUTHORIZED_401)) {
-                        if (this.authNeeded) {
-                            // we try again if we can refresh the auth token. Invalidate it first
-                            this.authTokValid = false;
-                            if (!this.CheckAuthState()) {
-                                logger.error("reauth failed");
-                                // we still have a 401 in response to send back to a forwarder
-                                break;
-                            }
-                            // if we get here, we have refreshed the auth token and will give it
-                            // one more try.
-                        } else {
-                            logger.error("server returned 401 but credentials not supplied");
-                            break;
-                        }
-                    } else {
-                        logger.error("HTTP GET failed: {}, {}", response.getStatus(), response.getReason());
-                        break;
+            if (response.getStatus() == HttpStatus.UNAUTHORIZED_401) {
+                if (this.authNeeded) {
+                    // we try again with a fresh token, if someone else hasn't already got
+                    // one, and we can get one.
+                    if (!Reauthorize(response).join()) {
+                        logger.error("reauth failed");
+                        // we still have a 401 in response to send back to a forwarder
+                        return response;
                     }
+                    request.header(HttpHeader.AUTHORIZATION, null);
+                    request.header(HttpHeader.AUTHORIZATION, "Bearer " + this.auth.Get());
+                    response = request.send();
+                } else {
+                    logger.error("server returned 401 but credentials not supplied");
                 }
-                response = request.send();
+            }
+            if (response.getStatus() != HttpStatus.OK_200) {
+                logger.error("HTTP GET failed: {}, {}", response.getStatus(), response.getReason());
             }
             return response;
         } else {
@@ -338,75 +385,294 @@ public class frigateSVRHTTPHelper {
         }
     }
 
+    ////////////////////////////////////////////////////////////////////////////
+    // SendFrigateRequestAsync
+    //
+    // As SendFrigateRequest, without waiting for the server. A Jetty request
+    // can only be sent once, so we take a function building the request; if
+    // the server refuses our token, we get a new one and build the request
+    // again for one more try. The future completes when the response has
+    // arrived, on one of the HTTP client's threads.
+
+    public CompletableFuture<ContentResponse> SendFrigateRequestAsync(Supplier<Request> newRequest) {
+        return CheckAuthStateAsync().thenCompose(ok -> {
+            if (!ok) {
+                return CompletableFuture.<ContentResponse> failedFuture(
+                        new ExecutionException("Unauthorized", new Error("Unauthorized")));
+            }
+            return SendAuthorized(newRequest);
+        }).thenCompose(response -> {
+            if (response.getStatus() != HttpStatus.UNAUTHORIZED_401) {
+                return CompletableFuture.completedFuture(response);
+            }
+            if (!this.authNeeded) {
+                logger.error("server returned 401 but credentials not supplied");
+                return CompletableFuture.completedFuture(response);
+            }
+            // try again with a fresh token, if someone else hasn't already got one,
+            // and we can get one.
+            return Reauthorize(response).thenCompose(ok -> {
+                if (!ok) {
+                    logger.error("reauth failed");
+                    return CompletableFuture.completedFuture(response);
+                }
+                return SendAuthorized(newRequest);
+            });
+        });
+    }
+
+    private CompletableFuture<ContentResponse> SendAuthorized(Supplier<Request> newRequest) {
+        Request request;
+        try {
+            request = newRequest.get();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new ExecutionException(
+                    String.format("HTTP helper called in unconfigured state (message %s)", e.getMessage()), e));
+        }
+        if (this.authNeeded) {
+            request.header(HttpHeader.AUTHORIZATION, "Bearer " + this.auth.Get());
+        }
+        request.timeout(timeout, TimeUnit.MILLISECONDS);
+        return Send(request);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Send
+    //
+    // Send a request, buffering the response. The future completes with the
+    // response, or with the exception that failed the request.
+
+    private CompletableFuture<ContentResponse> Send(Request request) {
+        CompletableFuture<ContentResponse> f = new CompletableFuture<ContentResponse>();
+        request.send(new BufferingResponseListener() {
+            @Override
+            public void onComplete(@Nullable Result result) {
+                if (result == null) {
+                    f.completeExceptionally(new ExecutionException("no result", null));
+                } else if (result.isFailed()) {
+                    f.completeExceptionally(result.getFailure());
+                } else {
+                    f.complete(new HttpContentResponse(result.getResponse(), getContent(), getMediaType(),
+                            getEncoding()));
+                }
+            }
+        });
+        return f;
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     // runGet
     //
-    // Synchronous GET call to the Frigate API. To date we only use a couple
-    // of different GET calls from within the binding
+    // Synchronous GET call to the Frigate API. Only for callers that must
+    // have the answer before they can return (e.g. ThingActions).
 
     public ResultStruct runGet(String call) {
-        ResultStruct r = new ResultStruct();
-        try {
+        return runGetAsync(call).join();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // runGetAsync
+    //
+    // GET call to the Frigate API. The future always completes normally,
+    // with a failed ResultStruct if the call failed.
+
+    public CompletableFuture<ResultStruct> runGetAsync(String call) {
+        frigateSVRResponseCache.Policy policy = this.cache.PolicyFor(call);
+        if (policy != null) {
+            return runCachedGetAsync(call, policy);
+        }
+        return ToResult(CoalesceAsync("GET " + buildURL(call), () -> SendFrigateRequestAsync(() -> {
             Request request = ((@NonNull HttpClient) this.client).newRequest(buildURL(call));
             request.method(HttpMethod.GET);
-            ContentResponse response = SendFrigateRequest(request);
-            if (response.getStatus() == HttpStatus.OK_200) {
-                RawType jsonrq = new RawType(response.getContent(), response.getHeaders().get(HttpHeader.CONTENT_TYPE));
-                r.rc = true;
-                r.raw = jsonrq.getBytes();
-                r.message = "ok";
-                r.type = response.getHeaders().get(HttpHeader.CONTENT_TYPE);
-            } else {
-                r.message = String.format("HTTP GET failed: %d, %s", response.getStatus(), response.getReason());
-            }
-        } catch (TimeoutException e) {
-            r.message = String.format("TimeoutException: Call to Frigate Server timed out after %d msec", timeout);
-        } catch (ExecutionException e) {
-            r.message = String.format("ExecutionException: %s", e.getMessage());
-        } catch (InterruptedException e) {
-            r.message = String.format("InterruptedException: %s", e.getMessage());
-            Thread.currentThread().interrupt();
-        }
-        if (!r.rc) {
-            logger.error("{}", r.message);
+            return request;
+        })), "GET");
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // runCachedGetAsync
+    //
+    // As runGetAsync, for a call we cache. A fresh cached response is used
+    // as is. Otherwise we go to Frigate, revalidating the cached response
+    // if it can be.
+
+    private CompletableFuture<ResultStruct> runCachedGetAsync(String call, frigateSVRResponseCache.Policy policy) {
+        long now = System.currentTimeMillis();
+        frigateSVRResponseCache.Entry cached = this.cache.Get(call, now);
+        if (cached != null && frigateSVRResponseCache.IsFresh(cached, now)) {
+            return CompletableFuture.completedFuture(frigateSVRResponseCache.Result(cached));
         }
-        return r;
+        frigateSVRResponseCache.Entry stale = (cached != null && cached.CanRevalidate()) ? cached : null;
+        String etag = (stale != null) ? stale.GetETag() : null;
+        String lastModified = (stale != null) ? stale.GetLastModified() : null;
+        String key = "GET " + buildURL(call) + "\n" + etag + "\n" + lastModified;
+        return CoalesceAsync(key, () -> SendFrigateRequestAsync(() -> {
+            Request request = ((@NonNull HttpClient) this.client).newRequest(buildURL(call));
+            request.method(HttpMethod.GET);
+            if (etag != null) {
+                request.header(HttpHeader.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                request.header(HttpHeader.IF_MODIFIED_SINCE, lastModified);
+            }
+            return request;
+        })).handle((response, ex) -> {
+            if (ex == null && stale != null && response.getStatus() == HttpStatus.NOT_MODIFIED_304) {
+                return this.cache.Revalidated(stale, policy);
+            }
+            ResultStruct r = MakeResult(response, ex, "GET");
+            if (r.rc) {
+                this.cache.Put(call, policy, r, response.getHeaders().get(HttpHeader.ETAG),
+                        response.getHeaders().get(HttpHeader.LAST_MODIFIED));
+            }
+            return r;
+        });
     }
 
     ////////////////////////////////////////////////////////////////////////////
     // runPost
     //
-    // Synchronous POST call to the Frigate API.import java.net.URL;
+    // Synchronous POST call to the Frigate API.
 
     public ResultStruct runPost(String call, @Nullable String payload, @Nullable String bodyType) {
-        ResultStruct r = new ResultStruct();
-        try {
+        return runPostAsync(call, payload, bodyType).join();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // runPostAsync
+    //
+    // POST call to the Frigate API. As runGetAsync.
+
+    public CompletableFuture<ResultStruct> runPostAsync(String call, @Nullable String payload,
+            @Nullable String bodyType) {
+        return ToResult(SendFrigateRequestAsync(() -> {
             Request request = ((@NonNull HttpClient) this.client).POST(buildURL(call));
             request.method(HttpMethod.POST);
             request.header(HttpHeader.ACCEPT, "application/json");
-            request.timeout(timeout, TimeUnit.MILLISECONDS);
             if (payload != null) {
                 String bt = (bodyType == null) ? "text/plain" : bodyType;
                 request.content(new StringContentProvider(payload), bt);
             }
-            ContentResponse response = SendFrigateRequest(request);
-            if (response.getStatus() == HttpStatus.OK_200) {
-                RawType jsonrq = new RawType(response.getContent(), response.getHeaders().get(HttpHeader.CONTENT_TYPE));
-                r.rc = true;
-                r.raw = jsonrq.getBytes();
-                r.message = new String("ok");
-                r.type = response.getHeaders().get(HttpHeader.CONTENT_TYPE);
+            return request;
+        }), "POST");
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // CoalesceAsync
+    //
+    // Run a GET, unless an identical one (with the same key) is already
+    // waiting for Frigate, in which case the caller shares its response.
+    // Once the response is in, the next identical GET goes to Frigate.
+
+    private CompletableFuture<ContentResponse> CoalesceAsync(String key,
+            Supplier<CompletableFuture<ContentResponse>> send) {
+        CompletableFuture<ContentResponse> mine = new CompletableFuture<ContentResponse>();
+        CompletableFuture<ContentResponse> first = this.inFlight.putIfAbsent(key, mine);
+        if (first != null) {
+            logger.trace("sharing response to in-flight {}", key);
+            return first;
+        }
+        CompletableFuture<ContentResponse> f;
+        try {
+            f = send.get();
+        } catch (Exception e) {
+            f = CompletableFuture.failedFuture(e);
+        }
+        f.whenComplete((response, ex) -> {
+            this.inFlight.remove(key, mine);
+            if (ex != null) {
+                mine.completeExceptionally(ex);
+            } else {
+                mine.complete(response);
+            }
+        });
+        return mine;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Coalesce
+    //
+    // As CoalesceAsync, for a GET sent on the caller's thread.
+
+    private ContentResponse Coalesce(String key, Callable<ContentResponse> send)
+            throws TimeoutException, ExecutionException, InterruptedException {
+        CompletableFuture<ContentResponse> mine = new CompletableFuture<ContentResponse>();
+        CompletableFuture<ContentResponse> first = this.inFlight.putIfAbsent(key, mine);
+        if (first != null) {
+            logger.trace("sharing response to in-flight {}", key);
+            try {
+                return first.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof TimeoutException) {
+                    throw (TimeoutException) cause;
+                }
+                throw (cause instanceof ExecutionException) ? (ExecutionException) cause : e;
+            }
+        }
+        try {
+            ContentResponse response = send.call();
+            this.inFlight.remove(key, mine);
+            mine.complete(response);
+            return response;
+        } catch (Exception e) {
+            this.inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            if (e instanceof TimeoutException) {
+                throw (TimeoutException) e;
+            } else if (e instanceof InterruptedException) {
+                throw (InterruptedException) e;
+            } else if (e instanceof ExecutionException) {
+                throw (ExecutionException) e;
+            }
+            throw new ExecutionException(e.getMessage(), e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // CoalesceKey
+    //
+    // Requests for the same URL are only identical if the headers that can
+    // change the response (passed on from forwarder clients) are the same.
+
+    private static String CoalesceKey(Request request) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(request.getMethod()).append(' ').append(request.getURI());
+        for (HttpHeader h : COALESCE_HEADERS) {
+            String v = request.getHeaders().get(h);
+            if (v != null) {
+                sb.append('\n').append(h.asString()).append(':').append(v);
+            }
+        }
+        return sb.toString();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // ToResult
+    //
+    // Turn the response to a call (or its failure) into a ResultStruct.
+
+    private CompletableFuture<ResultStruct> ToResult(CompletableFuture<ContentResponse> call, String method) {
+        return call.handle((response, ex) -> MakeResult(response, ex, method));
+    }
+
+    private ResultStruct MakeResult(@Nullable ContentResponse response, @Nullable Throwable ex, String method) {
+        ResultStruct r = new ResultStruct();
+        if (ex != null || response == null) {
+            Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+            if (cause instanceof TimeoutException) {
+                r.message = String.format("TimeoutException: Call to Frigate Server timed out after %d msec",
+                        timeout);
             } else {
-                r.message = String.format("HTTP POST failed: %d, %s", response.getStatus(), response.getReason());
+                r.message = String.format("ExecutionException: %s", (cause != null) ? cause.getMessage() : "");
             }
-        } catch (TimeoutException e) {
-            r.message = String.format("TimeoutException: Call to Frigate Server timed out after %d msec", timeout);
-            logger.error("timeout in POST: message: {}", e.getMessage());
-        } catch (ExecutionException e) {
-            r.message = String.format("ExecutionException: %s", e.getMessage());
-        } catch (InterruptedException e) {
-            r.message = String.format("InterruptedException: %s", e.getMessage());
-            Thread.currentThread().interrupt();
+        } else if (response.getStatus() == HttpStatus.OK_200) {
+            RawType jsonrq = new RawType(response.getContent(), response.getHeaders().get(HttpHeader.CONTENT_TYPE));
+            r.rc = true;
+            r.raw = jsonrq.getBytes();
+            r.message = "ok";
+            r.type = response.getHeaders().get(HttpHeader.CONTENT_TYPE);
+        } else {
+            r.message = String.format("HTTP %s failed: %d, %s", method, response.getStatus(), response.getReason());
         }
         if (!r.rc) {
             logger.error("{}", r.message);
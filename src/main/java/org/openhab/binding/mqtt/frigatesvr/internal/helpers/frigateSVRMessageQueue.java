@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link mqtt.frigateSVRMessageQueue} is a bounded queue of MQTT message
+ * processing tasks for a camera or server Thing. Tasks are run in order, one at
+ * a time, on a pool shared by all queues, so the MQTT client's callback thread
+ * only has to queue the message, and a slow Thing can not hold up any other.
+ *
+ * Under load, 'droppable' tasks (stats and snapshots, which will be superseded
+ * by the next message anyway) are dropped once the queue is half full. Other
+ * tasks are only dropped if the queue is full.
+ *
+ * A queue only holds a pool thread for a batch of tasks at a time; if there is
+ * more to do, it goes to the back of the pool's queue, so that a busy Thing
+ * takes turns with the others rather than keeping a thread to itself.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRMessageQueue {
+
+    private static final String POOL_NAME = "frigateSVR-mqtt";
+    private static final int BATCH_SIZE = 32;
+
+    private final Logger logger = LoggerFactory.getLogger(frigateSVRMessageQueue.class);
+    private final ExecutorService pool = ThreadPoolManager.getPool(POOL_NAME);
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<Runnable>();
+    private final String name;
+    private int capacity;
+    private boolean running = false;
+    private long dropped = 0;
+
+    public frigateSVRMessageQueue(String name, int capacity) {
+        this.name = name;
+        this.capacity = Math.max(capacity, 2);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // SetCapacity
+    //
+    // Change the queue capacity. Anything already queued stays queued.
+
+    public synchronized void SetCapacity(int capacity) {
+        this.capacity = Math.max(capacity, 2);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Submit
+    //
+    // Queue a task. Returns false if the task was dropped.
+
+    public boolean Submit(Runnable task, boolean droppable) {
+        synchronized (this) {
+            int limit = droppable ? this.capacity / 2 : this.capacity;
+            if (this.queue.size() >= limit) {
+                if (this.dropped++ % 100 == 0) {
+                    logger.warn("{}: message queue overloaded; dropping messages ({} so far)", this.name,
+                            this.dropped);
+                }
+                return false;
+            }
+            this.queue.add(task);
+            if (this.running) {
+                return true;
+            }
+            this.running = true;
+        }
+        Schedule();
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Schedule
+    //
+    // Hand the queue to the pool to drain. If the pool won't take it (e.g.
+    // it is being shut down), the queue is left to be tried again by the
+    // next Submit.
+
+    private void Schedule() {
+        try {
+            this.pool.execute(this::Drain);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                this.running = false;
+            }
+            logger.warn("{}: unable to process MQTT messages ({})", this.name, e.getMessage());
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Drain
+    //
+    // Run a batch of queued tasks, and reschedule if any are left.
+
+    private void Drain() {
+        for (int n = 0; n < BATCH_SIZE; n++) {
+            @Nullable
+            Runnable task;
+            synchronized (this) {
+                task = this.queue.poll();
+                if (task == null) {
+                    this.running = false;
+                    return;
+                }
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.warn("{}: error processing MQTT message ({})", this.name, e.getMessage());
+            }
+        }
+        synchronized (this) {
+            if (this.queue.isEmpty()) {
+                this.running = false;
+                return;
+            }
+        }
+        Schedule();
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Clear
+    //
+    // Throw away anything queued (e.g. when going offline).
+
+    public synchronized void Clear() {
+        this.queue.clear();
+    }
+
+    public synchronized int GetDepth() {
+        return this.queue.size();
+    }
+
+    public synchronized long GetDropped() {
+        return this.dropped;
+    }
+}
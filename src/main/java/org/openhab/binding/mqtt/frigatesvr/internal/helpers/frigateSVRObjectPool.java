@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link mqtt.frigateSVRObjectPool} is a small pool of reusable objects,
+ * such as event records. If the pool is empty a new object is made; objects
+ * released to a full pool are left to the garbage collector.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRObjectPool<T> {
+
+    private final ArrayDeque<T> free = new ArrayDeque<T>();
+    private final Supplier<T> factory;
+    private final int capacity;
+
+    public frigateSVRObjectPool(Supplier<T> factory, int capacity) {
+        this.factory = factory;
+        this.capacity = capacity;
+    }
+
+    public T Acquire() {
+        @Nullable
+        T obj;
+        synchronized (this.free) {
+            obj = this.free.poll();
+        }
+        return (obj != null) ? obj : this.factory.get();
+    }
+
+    public void Release(T obj) {
+        synchronized (this.free) {
+            if (this.free.size() < this.capacity) {
+                this.free.push(obj);
+            }
+        }
+    }
+}
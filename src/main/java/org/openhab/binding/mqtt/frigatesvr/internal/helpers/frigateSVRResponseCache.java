@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.gson.JsonObject;
+
+/**
+ * The {@link mqtt.frigateSVRResponseCache} holds the responses to Frigate API GET
+ * calls that change rarely (or that rules tend to ask for repeatedly), so that
+ * we don't go back to Frigate for them each time.
+ *
+ * Each cached call matches a policy giving how long a response may be used for,
+ * and the largest response worth keeping. Once that time is up, a response that
+ * came with an ETag or Last-Modified header is revalidated with Frigate rather
+ * than fetched again. Calls matching no policy are not cached.
+ *
+ * The cache is held to a budget of bytes, dropping the least recently used
+ * responses first. It is thread safe.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRResponseCache {
+
+    // A cache policy for calls matching a pattern. TTL is in ms.
+
+    public static class Policy {
+        final Pattern pattern;
+        final long ttl;
+        final int maxBytes;
+
+        Policy(String pattern, long ttl, int maxBytes) {
+            this.pattern = Pattern.compile(pattern);
+            this.ttl = ttl;
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    // The calls we cache. The config and labels only change when Frigate is
+    // restarted, and the PTZ information when the camera is set up again.
+    // Camera frames are never cached: a rule asking for one wants it now.
+
+    private static final Policy[] POLICIES = { new Policy("^/?api/config$", 60000, 1024 * 1024),
+            new Policy("^/?api/labels$", 60000, 64 * 1024),
+            new Policy("^/?api/[^/]+/ptz/info$", 300000, 64 * 1024) };
+
+    // A cached response
+
+    public static class Entry {
+        final ResultStruct result;
+        final @Nullable String etag;
+        final @Nullable String lastModified;
+        volatile long expires;
+
+        Entry(ResultStruct result, @Nullable String etag, @Nullable String lastModified, long expires) {
+            this.result = result;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+
+        public @Nullable String GetETag() {
+            return this.etag;
+        }
+
+        public @Nullable String GetLastModified() {
+            return this.lastModified;
+        }
+
+        public boolean CanRevalidate() {
+            return this.etag != null || this.lastModified != null;
+        }
+    }
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private volatile long budget = 0;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long revalidated = 0;
+
+    ////////////////////////////////////////////////////////////////////////
+    // SetBudget
+    //
+    // Set the number of bytes of responses we may hold. Zero turns the
+    // cache off.
+
+    public synchronized void SetBudget(long budget) {
+        this.budget = Math.max(budget, 0);
+        Trim();
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // PolicyFor
+    //
+    // The policy for a call, or null if the call is not cached.
+
+    public @Nullable Policy PolicyFor(String call) {
+        if (this.budget == 0) {
+            return null;
+        }
+        for (Policy p : POLICIES) {
+            if (p.pattern.matcher(call).matches()) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Get
+    //
+    // Look up a call at time 'now' (epoch ms). Returns the cached entry,
+    // fresh or not, or null. If the entry is still fresh at 'now' this
+    // counts as a hit; otherwise it counts as a miss.
+
+    public synchronized @Nullable Entry Get(String call, long now) {
+        Entry e = this.entries.get(call);
+        if (e != null && IsFresh(e, now)) {
+            this.hits++;
+        } else {
+            this.misses++;
+        }
+        return e;
+    }
+
+    public static boolean IsFresh(Entry e, long now) {
+        return e.expires > now;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Result
+    //
+    // A copy of the cached result for the caller, which may change it.
+    // The data is shared; no-one changes that.
+
+    public static ResultStruct Result(Entry e) {
+        ResultStruct r = new ResultStruct(e.result.rc, e.result.message, e.result.raw);
+        r.type = e.result.type;
+        return r;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Revalidated
+    //
+    // Frigate says the cached response to a call is still good: keep it
+    // for another TTL.
+
+    public synchronized ResultStruct Revalidated(Entry e, Policy policy) {
+        this.revalidated++;
+        e.expires = System.currentTimeMillis() + policy.ttl;
+        return Result(e);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Put
+    //
+    // Cache the successful response to a call, if it is not too big.
+
+    public synchronized void Put(String call, Policy policy, ResultStruct r, @Nullable String etag,
+            @Nullable String lastModified) {
+        Entry old = this.entries.remove(call);
+        if (old != null) {
+            this.bytes -= old.result.raw.length;
+        }
+        if (!r.rc || r.raw.length > policy.maxBytes || r.raw.length > this.budget) {
+            return;
+        }
+        ResultStruct copy = new ResultStruct(r.rc, r.message, r.raw);
+        copy.type = r.type;
+        this.entries.put(call, new Entry(copy, etag, lastModified, System.currentTimeMillis() + policy.ttl));
+        this.bytes += r.raw.length;
+        Trim();
+    }
+
+    // drop the least recently used entries until we are within budget
+
+    private void Trim() {
+        Iterator<Map.Entry<String, Entry>> it = this.entries.entrySet().iterator();
+        while (this.bytes > this.budget && it.hasNext()) {
+            this.bytes -= it.next().getValue().result.raw.length;
+            it.remove();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Clear
+    //
+    // Throw away everything cached (e.g. when Frigate goes away, as it may
+    // come back with a different configuration).
+
+    public synchronized void Clear() {
+        this.entries.clear();
+        this.bytes = 0;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // GetStats
+    //
+    // The hit and miss counts since startup, and what we hold, as JSON.
+
+    public synchronized String GetStats() {
+        JsonObject stats = new JsonObject();
+        stats.addProperty("hits", this.hits);
+        stats.addProperty("misses", this.misses);
+        stats.addProperty("revalidated", this.revalidated);
+        stats.addProperty("entries", this.entries.size());
+        stats.addProperty("bytes", this.bytes);
+        return stats.toString();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link mqtt.frigateSVRSnapshotFilter} decides whether a snapshot received
+ * from Frigate should be passed on to the snapshot channels. Frigate republishes
+ * the best snapshot of an object each time it improves, and often republishes
+ * the same image. We drop snapshots arriving within a minimum interval of the
+ * last one for the same object label, and snapshots identical to the last one
+ * we passed on.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRSnapshotFilter {
+
+    private final Logger logger = LoggerFactory.getLogger(frigateSVRSnapshotFilter.class);
+
+    private final long defaultInterval;
+    private final Map<String, Long> labelIntervals = new HashMap<String, Long>();
+    private final Map<String, Long> lastAccepted = new HashMap<String, Long>();
+    private final CRC32C crc = new CRC32C();
+    private long lastCRC = -1;
+    private int lastLength = -1;
+
+    ////////////////////////////////////////////////////////////////////////
+    // Constructor
+    //
+    // The default interval (seconds) applies to all labels not listed
+    // in labelIntervals. labelIntervals is a list of 'label=seconds'
+    // separated by commas or spaces; entries we can't parse are ignored.
+
+    public frigateSVRSnapshotFilter(int defaultInterval, String labelIntervals) {
+        this.defaultInterval = TimeUnit.SECONDS.toNanos(Math.max(defaultInterval, 0));
+        for (String entry : labelIntervals.trim().split("[,\\s]+")) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            String[] bits = entry.split("=");
+            try {
+                if (bits.length != 2 || bits[0].isBlank()) {
+                    throw new NumberFormatException(entry);
+                }
+                long interval = Long.parseLong(bits[1].trim());
+                this.labelIntervals.put(bits[0].trim(), TimeUnit.SECONDS.toNanos(Math.max(interval, 0)));
+            } catch (NumberFormatException e) {
+                logger.warn("ignoring invalid snapshot interval '{}'", entry);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Accept
+    //
+    // Returns true if the snapshot for the given label should be passed
+    // on. If so, it becomes the last snapshot for the label.
+
+    public synchronized boolean Accept(String label, byte[] jpeg) {
+
+        long now = System.nanoTime();
+        Long last = this.lastAccepted.get(label);
+        long interval = this.labelIntervals.getOrDefault(label, this.defaultInterval);
+        if (last != null && interval > 0 && (now - last) < interval) {
+            logger.debug("snapshot for {} within minimum interval; dropped", label);
+            return false;
+        }
+
+        // identical to the last image we let through?
+
+        this.crc.reset();
+        this.crc.update(jpeg, 0, jpeg.length);
+        long crcValue = this.crc.getValue();
+        if (jpeg.length == this.lastLength && crcValue == this.lastCRC) {
+            logger.debug("snapshot for {} unchanged; dropped", label);
+            return false;
+        }
+
+        this.lastLength = jpeg.length;
+        this.lastCRC = crcValue;
+        this.lastAccepted.put(label, now);
+        return true;
+    }
+}
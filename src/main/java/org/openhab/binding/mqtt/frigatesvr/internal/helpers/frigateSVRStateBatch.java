@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link mqtt.frigateSVRStateBatch} collects the channel updates worked out
+ * from one message, so that they are all worked out before any is passed to
+ * openHAB, and are then passed on in one pass in the order they were added.
+ *
+ * A batch is reused from one message to the next, and is not thread safe; it
+ * belongs to the Thing's message queue.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRStateBatch {
+
+    private String[] channels = new String[64];
+    private @Nullable State[] states = new State[64];
+    private int size = 0;
+
+    ////////////////////////////////////////////////////////////////////////
+    // Add
+    //
+    // Add an update to the batch.
+
+    public void Add(String channel, State state) {
+        if (this.size == this.channels.length) {
+            this.channels = Arrays.copyOf(this.channels, this.size * 2);
+            this.states = Arrays.copyOf(this.states, this.size * 2);
+        }
+        this.channels[this.size] = channel;
+        this.states[this.size++] = state;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Clear
+    //
+    // Throw away anything in the batch (e.g. left by a message we failed
+    // to process part way through).
+
+    public void Clear() {
+        Arrays.fill(this.states, 0, this.size, null);
+        this.size = 0;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Flush
+    //
+    // Pass the updates on in order, and empty the batch.
+
+    public void Flush(BiConsumer<String, State> publish) {
+        for (int i = 0; i < this.size; i++) {
+            State st = this.states[i];
+            if (st != null) {
+                publish.accept(this.channels[i], st);
+            }
+            this.states[i] = null;
+        }
+        this.size = 0;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * The {@link mqtt.frigateSVRStatsDecoder} pulls the per-camera fps figures out of
+ * the Frigate stats message. The stats message covers detectors, CPU and GPU
+ * usage and more besides; we only want a handful of numbers from the
+ * 'cameras' block, so everything else is skipped without being parsed.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRStatsDecoder {
+
+    // The fields we pick out of each camera's block. The index of each in
+    // this array is its index in the value array for the camera.
+
+    public static final String[] FIELDS = { "camera_fps", "process_fps", "skipped_fps", "detection_fps" };
+
+    private static final Map<String, Integer> fieldIndex = new HashMap<String, Integer>();
+    static {
+        for (int i = 0; i < FIELDS.length; i++) {
+            fieldIndex.put(FIELDS[i], i);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Decode
+    //
+    // Decode the stats payload. Returns a map from camera name to the field
+    // values for each camera accepted by wantCamera. Cameras we don't want
+    // are skipped. A null value is a field absent or null in the stats.
+
+    public static Map<String, @Nullable String[]> Decode(byte[] payload, Predicate<String> wantCamera)
+            throws IOException {
+
+        Map<String, @Nullable String[]> rc = new HashMap<String, @Nullable String[]>();
+
+        try (JsonReader reader = new JsonReader(
+                new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8))) {
+            reader.setStrictness(Strictness.LENIENT);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("cameras") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String cam = reader.nextName();
+                        if (wantCamera.test(cam) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                            rc.put(cam, DecodeCamera(reader));
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return rc;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // DecodeCamera
+    //
+    // Pull our fields from a camera block. As with events, the values are
+    // kept as JSON text for the channel converters.
+
+    private static @Nullable String[] DecodeCamera(JsonReader reader) throws IOException {
+        @Nullable
+        String[] values = new String[FIELDS.length];
+        reader.beginObject();
+        while (reader.hasNext()) {
+            Integer idx = fieldIndex.get(reader.nextName());
+            JsonToken tok = reader.peek();
+            if (idx != null && (tok == JsonToken.NUMBER || tok == JsonToken.STRING)) {
+                values[idx] = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return values;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link mqtt.frigateSVRStringDictionary} holds one instance of each of the
+ * commonly repeated values in Frigate messages - labels, zone lists, event
+ * types and the like - so that decoded events share these rather than each
+ * holding its own copy. It also means the channel 'has it changed' checks
+ * usually succeed on identity.
+ *
+ * Values are looked up by their characters, so the decoder can look up the
+ * text it has built without first making a String of it; a String is only
+ * made for a value we don't have.
+ *
+ * The dictionary is a fixed table of slots, two for each hash. A new value
+ * takes the first slot for its hash, moving the value there to the second and
+ * evicting the value in the second. Values in use (zone lists that change as
+ * objects move, sub labels from face recognition) thus stay in, and values no
+ * longer seen are pushed out, however many distinct values Frigate sends us.
+ *
+ * The dictionary is not locked. The slots only ever hold Strings, which are
+ * immutable, so a race at worst loses a value, which is made again next time.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRStringDictionary {
+
+    private final @Nullable String[] slots;
+    private final int mask;
+
+    ////////////////////////////////////////////////////////////////////////
+    // Constructor
+    //
+    // The table holds at least 'capacity' values.
+
+    public frigateSVRStringDictionary(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new String[size];
+        this.mask = size - 2;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Intern
+    //
+    // Returns the dictionary's instance of the characters, adding them if
+    // we don't have them.
+
+    public String Intern(CharSequence s) {
+        int len = s.length();
+        int h = 0;
+        for (int i = 0; i < len; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        int slot = (h ^ (h >>> 16)) & this.mask;
+        String first = this.slots[slot];
+        if (first != null && Same(first, s)) {
+            return first;
+        }
+        String second = this.slots[slot + 1];
+        if (second != null && Same(second, s)) {
+            this.slots[slot] = second; // most recent first
+            this.slots[slot + 1] = first;
+            return second;
+        }
+        String v = s.toString();
+        this.slots[slot + 1] = first;
+        this.slots[slot] = v;
+        return v;
+    }
+
+    private static boolean Same(String v, CharSequence s) {
+        return (v == s) || v.contentEquals(s);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Size
+    //
+    // The number of values held.
+
+    public int Size() {
+        int n = 0;
+        for (String v : this.slots) {
+            if (v != null) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRChannelState;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link mqtt.frigateSVRUpdatePlan} is the list of channels to update from a
+ * decoded event, review or stats record. It holds only the channels that are
+ * linked, each with the index of its value in the record and its channel state
+ * (which holds the converter), so that updating channels from a record does no
+ * lookups and no conversions for channels no-one is using.
+ *
+ * Plans are not changed once built; a new one is built when the links change.
+ *
+ * A plan can also keep the states it worked out in a {@link Kept} block, and
+ * another plan can later take states from the block for the same raw values
+ * rather than convert them again. This is how the 'previous' event channels
+ * reuse the states worked out for the 'current' channels from the last event.
+ * The channels at the same index in the two plans' tables must use the same
+ * converter.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRUpdatePlan {
+
+    // States worked out by a plan, indexed as the record values
+
+    public static class Kept {
+        public final @Nullable String[] raw;
+        public final @Nullable State[] states;
+
+        public Kept(int size) {
+            this.raw = new String[size];
+            this.states = new State[size];
+        }
+    }
+
+    public static final frigateSVRUpdatePlan EMPTY = new frigateSVRUpdatePlan(new int[0], new String[0],
+            new frigateSVRChannelState[0]);
+
+    private final int[] fields;
+    private final String[] channels;
+    private final frigateSVRChannelState[] states;
+
+    private frigateSVRUpdatePlan(int[] fields, String[] channels, frigateSVRChannelState[] states) {
+        this.fields = fields;
+        this.channels = channels;
+        this.states = states;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Build
+    //
+    // Build a plan from a table of channel IDs indexed as the record values,
+    // for the channels accepted by isLinked.
+
+    public static frigateSVRUpdatePlan Build(String[] table, Map<String, frigateSVRChannelState> channelStates,
+            Predicate<String> isLinked) {
+        List<Integer> fields = new ArrayList<Integer>();
+        for (int i = 0; i < table.length; i++) {
+            if (channelStates.containsKey(table[i]) && isLinked.test(table[i])) {
+                fields.add(i);
+            }
+        }
+        if (fields.isEmpty()) {
+            return EMPTY;
+        }
+        int[] f = new int[fields.size()];
+        String[] c = new String[f.length];
+        frigateSVRChannelState[] s = new frigateSVRChannelState[f.length];
+        for (int i = 0; i < f.length; i++) {
+            f[i] = fields.get(i);
+            c[i] = table[f[i]];
+            s[i] = (frigateSVRChannelState) channelStates.get(c[i]);
+        }
+        return new frigateSVRUpdatePlan(f, c, s);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Run
+    //
+    // Update the channels in the plan from the record values, subject to
+    // each channel's publish policy. A null value (or a null record) nulls
+    // the channel.
+
+    public void Run(@Nullable String @Nullable [] values, BiConsumer<String, State> publish) {
+        Run(values, publish, null, null);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Run
+    //
+    // As above. If 'from' is given, states in it for the same raw values
+    // are used rather than converting the values. If 'keep' is given, all
+    // the raw values are stored in it, with the states of the channels in
+    // the plan, so that it can stand in for the values later.
+
+    public void Run(@Nullable String @Nullable [] values, BiConsumer<String, State> publish, @Nullable Kept from,
+            @Nullable Kept keep) {
+        if (keep != null) {
+            Arrays.fill(keep.states, null);
+            if (values != null) {
+                System.arraycopy(values, 0, keep.raw, 0, keep.raw.length);
+            } else {
+                Arrays.fill(keep.raw, null);
+            }
+        }
+        for (int i = 0; i < this.fields.length; i++) {
+            int f = this.fields[i];
+            String v = (values != null) ? values[f] : null;
+            State known = (from != null && v != null && v.equals(from.raw[f])) ? from.states[f] : null;
+            State st = this.states[i].toStateIfChanged(v, known);
+            if (st != null) {
+                publish.accept(this.channels[i], st);
+            }
+            if (keep != null) {
+                keep.states[f] = this.states[i].state;
+            }
+        }
+    }
+
+    public boolean IsEmpty() {
+        return this.fields.length == 0;
+    }
+}
@@ -16,6 +16,7 @@ package org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateAPI;
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -46,6 +47,10 @@ public class APIHelper {
         this.httpHelper = helper;
     }
 
+    // Each call has an ...Async variant, which returns without waiting for
+    // the server. The plain calls wait for the answer, and are only for
+    // callers that must have it before they can return (e.g. ThingActions).
+
     ////////////////////////////////////////////////////////////////////
     /// getTrackedObjects
     ///
@@ -53,21 +58,32 @@ public class APIHelper {
     /// exceptions on error accessing API.
 
     public List<String> getTrackedObjects() {
-        List<String> rc = Collections.emptyList();
-        ResultStruct r = httpHelper.runGet("/api/labels");
-        if (r.rc) {
-            String result = new String(r.raw);
-            Gson gson = new Gson();
-            Type listType = new TypeToken<List<String>>() {
-            }.getType();
-            rc = gson.fromJson(result, listType);
-            if (rc == null) {
-                rc = Collections.emptyList();
+        return getTrackedObjectsAsync().join();
+    }
+
+    ////////////////////////////////////////////////////////////////////
+    /// getTrackedObjectsAsync
+    ///
+    /// As getTrackedObjects, without waiting for the server. The future
+    /// completes exceptionally if the list can not be decoded.
+
+    public CompletableFuture<List<String>> getTrackedObjectsAsync() {
+        return httpHelper.runGetAsync("/api/labels").thenApply(r -> {
+            List<String> rc = Collections.emptyList();
+            if (r.rc) {
+                String result = new String(r.raw);
+                Gson gson = new Gson();
+                Type listType = new TypeToken<List<String>>() {
+                }.getType();
+                rc = gson.fromJson(result, listType);
+                if (rc == null) {
+                    rc = Collections.emptyList();
+                }
+            } else {
+                logger.error("getTrackedObjects: failed to retrieve list of tracked objects");
             }
-        } else {
-            logger.error("getTrackedObjects: failed to retrieve list of tracked objects");
-        }
-        return rc;
+            return rc;
+        });
     }
 
     //////////////////////////////////////////////////////////////////
@@ -78,19 +94,21 @@ public class APIHelper {
     ///
 
     public ResultStruct TriggerEvent(String camera, String label, String payload) {
+        return TriggerEventAsync(camera, label, payload).join();
+    }
 
-        ResultStruct rc = new ResultStruct();
+    public CompletableFuture<ResultStruct> TriggerEventAsync(String camera, String label, String payload) {
 
         if (!label.isBlank() && !label.isEmpty() && label.matches("^[A-Za-z0-9]+$") && !camera.isBlank()
                 && !camera.isEmpty()) {
 
             String call = "/api/events/" + camera + "/" + label + "/create";
             logger.info("calling: POST '{}' payload {}", call, payload);
-            rc = httpHelper.runPost(call, payload, "application/json");
-        } else {
-            rc.message = "invalid arguments: camera: {} label: {}";
+            return httpHelper.runPostAsync(call, payload, "application/json");
         }
-        return rc;
+        ResultStruct rc = new ResultStruct();
+        rc.message = "invalid arguments: camera: {} label: {}";
+        return CompletableFuture.completedFuture(rc);
     }
 
     /////////////////////////////////////////////////////////////////
@@ -106,6 +124,10 @@ public class APIHelper {
     ///
 
     public ResultStruct GetRecordingSummary(String camera, String payload) {
+        return GetRecordingSummaryAsync(camera, payload).join();
+    }
+
+    public CompletableFuture<ResultStruct> GetRecordingSummaryAsync(String camera, String payload) {
         // check if payload has the 'cameras' key or if 'camera' is empty.
         // it does, use a different API. We don't validate the payload here
         String apiCall = "/api";
@@ -118,7 +140,7 @@ public class APIHelper {
             apiCall += "/" + camera;
         }
         apiCall += "/recordings/summary";
-        return httpHelper.runGet(apiCall);
+        return httpHelper.runGetAsync(apiCall);
     }
 
     /////////////////////////////////////////////////////////////////
@@ -130,8 +152,12 @@ public class APIHelper {
     ///
 
     public ResultStruct GetLastFrame(String camera) {
+        return GetLastFrameAsync(camera).join();
+    }
+
+    public CompletableFuture<ResultStruct> GetLastFrameAsync(String camera) {
         String apiCall = "/api/" + camera + "/latest.jpg";
-        return httpHelper.runGet(apiCall);
+        return httpHelper.runGetAsync(apiCall);
     }
 
     /////////////////////////////////////////////////////////////////
@@ -143,8 +169,12 @@ public class APIHelper {
     ///
 
     public ResultStruct GetEventThumbnail(String event) {
+        return GetEventThumbnailAsync(event).join();
+    }
+
+    public CompletableFuture<ResultStruct> GetEventThumbnailAsync(String event) {
         String apiCall = "/api/" + event + "/latest.jpg";
-        return httpHelper.runGet(apiCall);
+        return httpHelper.runGetAsync(apiCall);
     }
 
     /////////////////////////////////////////////////////////////////
@@ -154,10 +184,17 @@ public class APIHelper {
     ///
 
     public CameraPTZCaps GetCameraPTZCaps(String camera) {
+        return GetCameraPTZCapsAsync(camera).join();
+    }
+
+    public CompletableFuture<CameraPTZCaps> GetCameraPTZCapsAsync(String camera) {
+        return httpHelper.runGetAsync("/api/" + camera + "/ptz/info").thenApply(this::DecodePTZCaps);
+    }
+
+    private CameraPTZCaps DecodePTZCaps(ResultStruct r) {
 
         CameraPTZCaps c = new CameraPTZCaps();
 
-        ResultStruct r = httpHelper.runGet("/api/" + camera + "/ptz/info");
         if (r.rc) {
             try {
                 Gson gson = new Gson();
@@ -23,5 +23,14 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 public class frigateSVRCameraConfiguration extends frigateSVRCommonConfiguration {
     public String cameraName = "";
     public boolean enableStream = true;
+    public String ingestMode = "events";
     public String ffmpegCameraNameOverride = "";
+    public String eventUpdatePolicy = "onchange";
+    public int eventHeartbeatInterval = 300;
+    public int eventCoalesceWindow = 0;
+    public int snapshotMinInterval = 0;
+    public String snapshotLabelIntervals = "";
+    public int objectCountInterval = 0;
+    public boolean objectCountChannels = false;
+    public int eventHistorySize = 100;
 }
@@ -12,9 +12,11 @@
  */
 package org.openhab.binding.mqtt.frigatesvr.internal.structures;
 
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Objects;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -81,14 +83,53 @@ public class frigateSVRChannelState {
         return ((((OpenClosedType) s).toString().equals("CLOSED")) ? "true" : "false");
     }
 
-    // to and from Number types
+    // to and from Number types. Small whole numbers (fps figures, counts,
+    // thresholds) make up most of what we see, so we share a DecimalType for
+    // each of these rather than parse a new one every time. Python writes
+    // whole floats as 'n.0', so we keep those too, with the same precision
+    // as parsing them would give.
+
+    private static final DecimalType[] smallNumbers = new DecimalType[1024];
+    private static final DecimalType[] smallFloats = new DecimalType[1024];
+    static {
+        for (int i = 0; i < smallNumbers.length; i++) {
+            smallNumbers[i] = new DecimalType(i);
+            smallFloats[i] = new DecimalType(i + ".0");
+        }
+    }
 
     public static State fromNumberMQTT(String s) {
-        return new DecimalType(s);
+        int n = ParseSmallInt(s);
+        if (n < 0) {
+            return new DecimalType(s);
+        }
+        return s.endsWith(".0") ? smallFloats[n] : smallNumbers[n];
     }
 
     public static String toNumberMQTT(State s) {
-        return new String("" + ((DecimalType) s).intValue());
+        return String.valueOf(((DecimalType) s).intValue());
+    }
+
+    // Returns the value of a string of up to four digits (allowing for a
+    // trailing '.0') if it is one of our shared numbers, otherwise -1.
+
+    private static int ParseSmallInt(String s) {
+        int len = s.length();
+        if (len > 2 && s.charAt(len - 2) == '.' && s.charAt(len - 1) == '0') {
+            len -= 2;
+        }
+        if (len == 0 || len > 4) {
+            return -1;
+        }
+        int n = 0;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            n = n * 10 + (c - '0');
+        }
+        return (n < smallNumbers.length) ? n : -1;
     }
 
     // to and from String types
@@ -110,17 +151,45 @@ public class frigateSVRChannelState {
     public static String toJPEGMQTT(State s) {
         return new String(""); // not used
     }
-    // to and from Frigate timestamp types
+    // to and from Frigate timestamp types. Frigate timestamps are epoch
+    // seconds with a fraction (e.g. 1712345678.123456). We take the seconds
+    // and nanoseconds straight from the digits, which is exact, and only fall
+    // back to parsing a double for anything else. A time outside the range
+    // we can represent is the null state.
+    //
+    // The zone is looked up each time, as it can be changed while we run.
+    // This costs little: systemDefault() hands back the zone already held
+    // by the default TimeZone.
 
     public static State fromTimestampMQTT(String s) {
-        double ts = Double.parseDouble(s);
-        if (ts != 0.0f) {
-            long sec = (long) ts;
-            long nano = (long) ((ts - sec) * 1000000000);
-            ZonedDateTime zonedDateTime = ZonedDateTime.ofInstant(Instant.ofEpochSecond(sec, nano),
-                    ZoneId.systemDefault());
-            return new DateTimeType(zonedDateTime);
-        } else {
+        long sec = 0;
+        long nano = 0;
+        int i = 0;
+        int len = s.length();
+        while (i < len && s.charAt(i) >= '0' && s.charAt(i) <= '9' && i < 18) {
+            sec = sec * 10 + (s.charAt(i++) - '0');
+        }
+        boolean digits = i > 0;
+        if (i < len && s.charAt(i) == '.') {
+            int scale = 100000000;
+            for (i++; i < len && s.charAt(i) >= '0' && s.charAt(i) <= '9'; i++) {
+                nano += (s.charAt(i) - '0') * scale;
+                scale /= 10;
+                digits = true;
+            }
+        }
+        if (i < len || !digits) {
+            double ts = Double.parseDouble(s);
+            sec = (long) ts;
+            nano = (long) ((ts - sec) * 1000000000);
+        }
+        if (sec == 0 && nano == 0) {
+            return UnDefType.NULL;
+        }
+        try {
+            return new DateTimeType(
+                    ZonedDateTime.ofInstant(Instant.ofEpochSecond(sec, nano), ZoneId.systemDefault()));
+        } catch (DateTimeException | ArithmeticException e) {
             return UnDefType.NULL;
         }
     }
@@ -142,12 +211,35 @@ public class frigateSVRChannelState {
 
     // end of converter functions.
 
+    // When to publish an update from the incoming raw value: every time, only
+    // when the raw value changes, or when it changes or the heartbeat interval
+    // has elapsed since we last published.
+
+    public enum PublishPolicy {
+        ALWAYS,
+        ON_CHANGE,
+        ON_CHANGE_OR_HEARTBEAT
+    }
+
     private final Logger logger = LoggerFactory.getLogger(frigateSVRChannelState.class);
     public String MQTTTopicSuffix;
     public State state = UnDefType.NULL;
     public ConverterState ConvertToState;
     public ConverterMQTT ConvertToMQTT;
     public boolean commandable;
+    public PublishPolicy policy = PublishPolicy.ALWAYS;
+    public long heartbeatMillis = 0;
+
+    private @Nullable String lastRaw = null;
+
+    // The raw value last converted, and the state it gave. States are
+    // immutable, so if the same raw value comes in again we reuse the state
+    // rather than convert it again.
+
+    private @Nullable String convertedRaw = null;
+    private State convertedState = UnDefType.NULL;
+    private boolean published = false;
+    private long lastPublished = 0;
 
     public frigateSVRChannelState(String MQTTTopicSuffix, ConverterState toState, ConverterMQTT toMQTT,
             boolean commandable) {
@@ -192,13 +284,79 @@ public class frigateSVRChannelState {
 
     public State toState(@Nullable String s) {
         if (s != null) {
-            this.state = ConvertToState.fromString(s);
+            if (!s.equals(this.convertedRaw)) {
+                this.convertedState = ConvertToState.fromString(s);
+                this.convertedRaw = s;
+            }
+            this.state = this.convertedState;
         } else {
             this.state = UnDefType.NULL;
         }
         return this.state;
     }
 
+    /////////////////////////////////////////////////////////////////////////
+    // toStateIfChanged
+    //
+    // As toState, but applies the publish policy. Returns the new state if
+    // it should be published, or null if the raw value is unchanged and
+    // the policy says not to publish it. A null raw value is the null state.
+
+    public @Nullable State toStateIfChanged(@Nullable String s) {
+        return toStateIfChanged(s, null);
+    }
+
+    /////////////////////////////////////////////////////////////////////////
+    // toStateIfChanged
+    //
+    // As above, but if 'converted' is given it is the state for the raw value
+    // already worked out elsewhere (by a channel with the same converter),
+    // and is used rather than converting the raw value again.
+
+    public @Nullable State toStateIfChanged(@Nullable String s, @Nullable State converted) {
+        long now = System.currentTimeMillis();
+        boolean changed = !this.published || !Objects.equals(s, this.lastRaw);
+        switch (this.policy) {
+            case ON_CHANGE:
+                if (!changed) {
+                    return null;
+                }
+                break;
+            case ON_CHANGE_OR_HEARTBEAT:
+                if (!changed && (now - this.lastPublished) < this.heartbeatMillis) {
+                    return null;
+                }
+                break;
+            default:
+            case ALWAYS:
+                break;
+        }
+        if (changed) {
+            if (converted != null && s != null) {
+                this.state = converted;
+                this.convertedRaw = s;
+                this.convertedState = converted;
+            } else {
+                this.toState(s);
+            }
+            this.lastRaw = s;
+        }
+        this.published = true;
+        this.lastPublished = now;
+        return this.state;
+    }
+
+    /////////////////////////////////////////////////////////////////////////
+    // resetPublished
+    //
+    // Forget the last raw value, so that the next update is published
+    // whatever the policy.
+
+    public void resetPublished() {
+        this.published = false;
+        this.lastRaw = null;
+    }
+
     public State toStateFromRaw(byte[] b, String mimetype) {
         logger.debug("Channel - updating raw type");
         this.state = new RawType(b, mimetype);
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.structures;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link mqtt.frigateSVREventRecord} holds the fields we use from a Frigate
+ * event message. It is filled by the event decoder and reused between events,
+ * so it must not be held on to once the event has been processed.
+ *
+ * The field values are held as the JSON text of the value (so strings are
+ * quoted) which is what the channel converters have always been given. The
+ * values of the fields marked in INTERNED are taken from the server's string
+ * dictionary, as they repeat from one event to the next.
+ *
+ * Numbers (scores, times, area) are kept as text rather than as primitives:
+ * the JSON reader makes a String of any number with a fraction as it reads it,
+ * and the channels detect changes on and convert the text, so a parsed copy
+ * would be extra work for each event. Only the event history, which keeps a
+ * few of them for completed events, parses them. The box is kept as text for
+ * the same reason; its channel is a String channel carrying the JSON array.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVREventRecord {
+
+    // The event fields we pick out of the 'before' and 'after' blocks. The
+    // index of each in this array is its index in the value arrays.
+
+    public static final String[] FIELDS = { "frame_time", "snapshot_time", "label", "sub_label", "top_score",
+            "false_positive", "start_time", "end_time", "score", "box", "area", "ratio", "region", "current_zones",
+            "entered_zones", "has_snapshot", "has_clip", "stationary", "motionless_count", "position_changes",
+            "max_severity", "recognized_license_plate" };
+
+    private static final Map<String, Integer> fieldIndex = new HashMap<String, Integer>();
+    static {
+        for (int i = 0; i < FIELDS.length; i++) {
+            fieldIndex.put(FIELDS[i], i);
+        }
+    }
+
+    public static final int IDX_HAS_CLIP = IndexOf("has_clip");
+
+    public static final boolean[] INTERNED = Flags("label", "sub_label", "false_positive", "current_zones",
+            "entered_zones", "has_snapshot", "has_clip", "stationary", "max_severity");
+
+    private static final byte[] NO_RAW = new byte[0];
+
+    public String type = "";
+    public String camera = "";
+    public String id = "";
+    public @Nullable String[] before = new String[FIELDS.length];
+    public @Nullable String[] after = new String[FIELDS.length];
+
+    // Set if the 'before' block was not decoded, as the camera already had
+    // it from the last event for the object. The 'before' values are then
+    // all null.
+
+    public boolean beforeSkipped = false;
+
+    // The message the event was decoded from. This is not copied, and is
+    // only turned into a String if the event JSON is wanted.
+
+    public byte[] raw = NO_RAW;
+
+    ////////////////////////////////////////////////////////////////////////
+    // IndexOf
+    //
+    // Returns the index of the named event field, or -1 if we don't
+    // carry it.
+
+    public static int IndexOf(String field) {
+        Integer idx = fieldIndex.get(field);
+        return (idx != null) ? idx : -1;
+    }
+
+    private static boolean[] Flags(String... fields) {
+        boolean[] flags = new boolean[FIELDS.length];
+        for (String f : fields) {
+            flags[IndexOf(f)] = true;
+        }
+        return flags;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // reset
+    //
+    // Clear down ready for the next event. A null value means the field
+    // was absent or null in the event; either way the channel is nulled.
+
+    public void reset() {
+        this.type = "";
+        this.camera = "";
+        this.id = "";
+        this.beforeSkipped = false;
+        Arrays.fill(this.before, null);
+        Arrays.fill(this.after, null);
+        this.raw = NO_RAW;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // copy
+    //
+    // Returns a copy of the record, for when an event has to be held on
+    // to beyond the call it was passed in.
+
+    public frigateSVREventRecord copy() {
+        return new frigateSVREventRecord().copyFrom(this);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // copyFrom
+    //
+    // Make this record a copy of another (e.g. a record from a pool).
+
+    public frigateSVREventRecord copyFrom(frigateSVREventRecord other) {
+        this.type = other.type;
+        this.camera = other.camera;
+        this.id = other.id;
+        this.raw = other.raw;
+        this.beforeSkipped = other.beforeSkipped;
+        System.arraycopy(other.before, 0, this.before, 0, FIELDS.length);
+        System.arraycopy(other.after, 0, this.after, 0, FIELDS.length);
+        return this;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // hasClip
+    //
+    // True if the current state of the event says there is a clip
+
+    public boolean hasClip() {
+        return "true".equals(this.after[IDX_HAS_CLIP]);
+    }
+}
@@ -32,4 +32,7 @@ public class frigateSVRFrigateMQTTBlock {
     @Expose
     @SerializedName("topic_prefix")
     public String topicPrefix = "frigate";
+    @Expose
+    @SerializedName("stats_interval")
+    public int statsInterval = 60;
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.structures;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link mqtt.frigateSVRReviewRecord} holds the fields we use from a Frigate
+ * review segment message. Review segments group the detections on a camera
+ * over a period into a single alert or detection, and are published far less
+ * often than events.
+ *
+ * As with the event record, values are held as JSON text, and the record is
+ * reused between messages.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRReviewRecord {
+
+    // The fields we pick out of the 'after' block. The first three are
+    // in the block itself; the rest are in its 'data' sub-block.
+
+    public static final String[] FIELDS = { "severity", "start_time", "end_time", "objects", "sub_labels",
+            "zones" };
+
+    // Fields whose values repeat, and are taken from the string dictionary
+    // (all but the times)
+
+    public static final boolean[] INTERNED = { true, false, false, true, true, true };
+
+    private static final Map<String, Integer> fieldIndex = new HashMap<String, Integer>();
+    static {
+        for (int i = 0; i < FIELDS.length; i++) {
+            fieldIndex.put(FIELDS[i], i);
+        }
+    }
+
+    private static final byte[] NO_RAW = new byte[0];
+
+    public String type = "";
+    public String camera = "";
+    public String id = "";
+    public @Nullable String[] values = new String[FIELDS.length];
+
+    // The message the review was decoded from; not copied.
+
+    public byte[] raw = NO_RAW;
+
+    ////////////////////////////////////////////////////////////////////////
+    // IndexOf
+    //
+    // Returns the index of the named review field, or -1 if we don't
+    // carry it.
+
+    public static int IndexOf(String field) {
+        Integer idx = fieldIndex.get(field);
+        return (idx != null) ? idx : -1;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // reset
+    //
+    // Clear down ready for the next review segment.
+
+    public void reset() {
+        this.type = "";
+        this.camera = "";
+        this.id = "";
+        Arrays.fill(this.values, null);
+        this.raw = NO_RAW;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // copy
+    //
+    // Returns a copy of the record, for when it has to be held on to
+    // beyond the call it was passed in.
+
+    public frigateSVRReviewRecord copy() {
+        frigateSVRReviewRecord rc = new frigateSVRReviewRecord();
+        rc.type = this.type;
+        rc.camera = this.camera;
+        rc.id = this.id;
+        rc.raw = this.raw;
+        System.arraycopy(this.values, 0, rc.values, 0, FIELDS.length);
+        return rc;
+    }
+}
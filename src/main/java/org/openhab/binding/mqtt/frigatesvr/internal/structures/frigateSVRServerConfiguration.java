@@ -27,7 +27,15 @@ public class frigateSVRServerConfiguration extends frigateSVRCommonConfiguration
     public String password = "";
     public boolean allowSelfSigned = false;
     public int serverKeepAlive = 5;
+    public int statsPublishInterval = 0;
+    public int messageQueueSize = 200;
+    public int eventJournalSize = 1000;
+    public int eventJournalMaxAge = 24;
     public int HTTPTimeout = 100;
+    public int httpMaxConnections = 4;
+    public int httpIdleTimeout = 30;
+    public boolean httpTCPKeepAlive = true;
+    public int httpCacheSize = 2048;
     public boolean useRelativeURLs = true;
     public boolean enableAPIForwarder = true;
     public String streamWhitelist = "";
@@ -14,6 +14,7 @@
 package org.openhab.binding.mqtt.frigatesvr.internal.structures;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRHTTPClientRegistry;
 import org.openhab.core.net.NetworkAddressService;
 import org.osgi.service.cm.ConfigurationAdmin;
 import org.osgi.service.http.HttpService;
@@ -29,6 +30,7 @@ public class frigateSVRServices {
     public final HttpService httpService;
     public final ConfigurationAdmin cfgAdmin;
     public final NetworkAddressService addressService;
+    public final frigateSVRHTTPClientRegistry httpClients = new frigateSVRHTTPClientRegistry();
 
     public frigateSVRServices(HttpService httpService, ConfigurationAdmin cfgAdmin,
             NetworkAddressService addressService) {
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.handlers;
+
+import static org.openhab.binding.mqtt.frigatesvr.internal.frigateSVRBindingConstants.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.mqtt.frigatesvr.internal.helpers.frigateSVRMessageQueue;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRServices;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.builder.BridgeBuilder;
+import org.openhab.core.thing.binding.builder.ThingBuilder;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link mqtt.frigateSVRHandlerFixture} brings up a server Thing and some
+ * camera Things without a Frigate server or an MQTT broker, so that MQTT
+ * messages can be fed to their processMessage methods as the MQTT client
+ * would.
+ *
+ * The server is given the recorded Frigate configuration block in place of the
+ * one it would fetch, and brought online as the server check would. The
+ * cameras (cam01, cam02, ...) then come online through their normal path.
+ * Frigate's HTTP API is pointed at a port nothing listens on, so the calls
+ * the cameras make as they come online fail at once.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRHandlerFixture {
+
+    public static final String PREFIX = "frigate";
+    public static final List<String> TRACKED = List.of("person", "car", "dog");
+
+    private final frigateSVRStubCallback callback = new frigateSVRStubCallback();
+    private final frigateSVRServerHandler server;
+    private final frigateSVRMessageQueue serverQueue;
+    private final Map<String, frigateSVRCameraHandler> cameras = new LinkedHashMap<String, frigateSVRCameraHandler>();
+
+    ////////////////////////////////////////////////////////////////////////
+    // Constructor
+    //
+    // Bring up the server and the given number of cameras. The camera
+    // parameters override the defaults for all cameras; streaming is
+    // always off.
+
+    public frigateSVRHandlerFixture(int cameraCount, Map<String, Object> cameraParams) throws Exception {
+
+        frigateSVRServices services = Services();
+
+        Map<String, Object> serverParams = new HashMap<String, Object>();
+        serverParams.put("serverURL", "http://127.0.0.1:9");
+        serverParams.put("enableAPIForwarder", false);
+        serverParams.put("enableStream", false);
+        serverParams.put("eventJournalSize", BigDecimal.ZERO);
+        serverParams.put("messageQueueSize", BigDecimal.valueOf(4096));
+        Bridge bridge = BridgeBuilder.create(THING_TYPE_SERVER, new ThingUID(THING_TYPE_SERVER, "fixture"))
+                .withConfiguration(new Configuration(serverParams)).build();
+
+        this.server = new frigateSVRServerHandler(bridge, services);
+        bridge.setHandler(this.server);
+        this.server.setCallback(this.callback.Create());
+        this.callback.AddBridge(bridge);
+        this.server.initialize();
+
+        // as the server check does once Frigate has answered
+
+        Call(this.server, "TakeServerConfiguration", new Class<?>[] { String.class },
+                frigateSVRPayloads.Text("config.json"));
+        Call(this.server, "OnlineServer", new Class<?>[] { List.class }, TRACKED);
+        if (bridge.getStatus() != ThingStatus.ONLINE) {
+            throw new IllegalStateException("server did not come online: " + bridge.getStatusInfo());
+        }
+        this.serverQueue = (frigateSVRMessageQueue) Get(this.server, "messageQueue");
+
+        for (int i = 1; i <= cameraCount; i++) {
+            String name = String.format("cam%02d", i);
+            Map<String, Object> params = new HashMap<String, Object>(cameraParams);
+            params.put("cameraName", name);
+            params.put("enableStream", false);
+            Thing thing = ThingBuilder.create(THING_TYPE_CAMERA, new ThingUID(THING_TYPE_CAMERA, name))
+                    .withConfiguration(new Configuration(params)).withBridge(bridge.getUID()).build();
+            frigateSVRCameraHandler camera = new frigateSVRCameraHandler(thing, services);
+            thing.setHandler(camera);
+            camera.setCallback(this.callback.Create());
+            camera.initialize();
+            if (camera.getThing().getStatus() != ThingStatus.ONLINE) {
+                throw new IllegalStateException(
+                        "camera " + name + " did not come online: " + camera.getThing().getStatusInfo());
+            }
+            this.cameras.put(name, camera);
+        }
+
+        // once online, each camera sets its stream URL from the scheduler;
+        // wait for that, so that it doesn't land in the middle of a test.
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        for (frigateSVRCameraHandler camera : this.cameras.values()) {
+            while (GetState(camera.getThing(), CHANNEL_STREAM_URL) == null) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("camera " + camera.getThing().getUID() + " did not start");
+                }
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    // The handlers only need the framework services to stream and to
+    // forward the API, which we don't do.
+
+    @SuppressWarnings("null")
+    private static frigateSVRServices Services() {
+        return new frigateSVRServices(null, null, null);
+    }
+
+    public frigateSVRServerHandler GetServer() {
+        return this.server;
+    }
+
+    public frigateSVRCameraHandler GetCamera(String name) {
+        frigateSVRCameraHandler camera = this.cameras.get(name);
+        if (camera == null) {
+            throw new IllegalArgumentException("no camera " + name);
+        }
+        return camera;
+    }
+
+    public Collection<frigateSVRCameraHandler> GetCameras() {
+        return this.cameras.values();
+    }
+
+    public frigateSVRStubCallback GetCallback() {
+        return this.callback;
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // GetState
+    //
+    // The last state sent to a channel of a Thing.
+
+    public @Nullable State GetState(Thing thing, String channel) {
+        return this.callback.GetState(new ChannelUID(thing.getUID(), channel));
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Sync
+    //
+    // Wait until everything queued so far has been processed. Messages
+    // go through the server's queue and then the cameras', so we pass a
+    // marker through the server's queue to each camera's.
+
+    public void Sync() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(this.cameras.size() + 1);
+        List<frigateSVRCameraHandler> targets = new ArrayList<frigateSVRCameraHandler>(this.cameras.values());
+        this.serverQueue.Submit(() -> {
+            for (frigateSVRCameraHandler camera : targets) {
+                camera.GetMessageQueue().Submit(done::countDown, false);
+            }
+            done.countDown();
+        }, false);
+        if (!done.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("message queues not drained");
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Stop
+    //
+    // Take everything down again.
+
+    public void Stop() {
+        for (frigateSVRCameraHandler camera : this.cameras.values()) {
+            camera.dispose();
+        }
+        this.server.dispose();
+    }
+
+    // The handler's own steps that we take in place of Frigate
+
+    private static void Call(Object target, String name, Class<?>[] types, Object... args) throws Exception {
+        Method m = target.getClass().getDeclaredMethod(name, types);
+        m.setAccessible(true);
+        m.invoke(target, args);
+    }
+
+    private static Object Get(Object target, String name) throws Exception {
+        Field f = target.getClass().getDeclaredField(name);
+        f.setAccessible(true);
+        return f.get(target);
+    }
+}
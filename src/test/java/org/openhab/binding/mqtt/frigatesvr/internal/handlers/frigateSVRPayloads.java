@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.handlers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link mqtt.frigateSVRPayloads} loads the recorded Frigate payloads used
+ * by the benchmarks and tests. These live in the 'payloads' resource folder:
+ *
+ * - events-small, events-medium, events-large: the messages on the events
+ * topic for one tracked object, from 'new' to 'end', one per line. The small
+ * set has the fields of older Frigate versions; the large set has long paths,
+ * attributes, sub labels and zone lists, escapes and non-ASCII text.
+ * - reviews: review segment messages, one per line.
+ * - stats-1, stats-8, stats-64: stats messages for that many cameras.
+ * - snapshot-1.jpg, snapshot-2.jpg: two different snapshots.
+ * - config.json: a Frigate configuration block for 64 cameras.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRPayloads {
+
+    private static final String FOLDER = "/payloads/";
+
+    ////////////////////////////////////////////////////////////////////////
+    // Bytes
+    //
+    // The whole of a payload file.
+
+    public static byte[] Bytes(String name) {
+        try (InputStream in = frigateSVRPayloads.class.getResourceAsStream(FOLDER + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("no payload " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static String Text(String name) {
+        return new String(Bytes(name), StandardCharsets.UTF_8);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // Lines
+    //
+    // The messages in a payload file with one message per line.
+
+    public static List<byte[]> Lines(String name) {
+        List<byte[]> lines = new ArrayList<byte[]>();
+        for (String line : Text(name).split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(line.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return lines;
+    }
+}
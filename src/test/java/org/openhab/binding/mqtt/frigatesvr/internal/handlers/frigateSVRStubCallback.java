@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.handlers;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingStatusInfo;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link mqtt.frigateSVRStubCallback} stands in for the openHAB framework
+ * behind our handlers in the benchmarks and tests. It keeps the last state sent
+ * to each channel and counts the updates, treats every channel as linked, and
+ * applies status changes to the Thing. A Thing the handler replaces (as when it
+ * adds channels) keeps its status and handler, as with the framework. Anything
+ * else the handlers ask of the framework gets a null (or zero) answer.
+ *
+ * The callback is a proxy, so it does not have to follow the openHAB version
+ * adding methods to ThingHandlerCallback.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRStubCallback implements InvocationHandler {
+
+    private final Map<ThingUID, Bridge> bridges = new ConcurrentHashMap<ThingUID, Bridge>();
+    private final Map<ThingUID, Thing> things = new ConcurrentHashMap<ThingUID, Thing>();
+    private final Map<ChannelUID, State> states = new ConcurrentHashMap<ChannelUID, State>();
+    private final LongAdder updates = new LongAdder();
+
+    ////////////////////////////////////////////////////////////////////////
+    // Create
+    //
+    // A callback to hand to a Thing handler.
+
+    public ThingHandlerCallback Create() {
+        return (ThingHandlerCallback) Proxy.newProxyInstance(ThingHandlerCallback.class.getClassLoader(),
+                new Class<?>[] { ThingHandlerCallback.class }, this);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // AddBridge
+    //
+    // Make a bridge known, so that the handlers of Things under it can
+    // find it.
+
+    public void AddBridge(Bridge bridge) {
+        this.bridges.put(bridge.getUID(), bridge);
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // GetState, GetUpdates, Clear
+    //
+    // The last state sent to a channel, the number of channel updates so
+    // far, and forgetting both.
+
+    public @Nullable State GetState(ChannelUID channel) {
+        return this.states.get(channel);
+    }
+
+    public long GetUpdates() {
+        return this.updates.sum();
+    }
+
+    public void Clear() {
+        this.states.clear();
+        this.updates.reset();
+    }
+
+    @Override
+    public @Nullable Object invoke(Object proxy, Method method, @Nullable Object @Nullable [] args) {
+        Object[] a = (args != null) ? args : new Object[0];
+        switch (method.getName()) {
+            case "stateUpdated":
+                this.states.put((ChannelUID) a[0], (State) a[1]);
+                this.updates.increment();
+                return null;
+            case "statusUpdated":
+                ((Thing) a[0]).setStatusInfo((ThingStatusInfo) a[1]);
+                this.things.put(((Thing) a[0]).getUID(), (Thing) a[0]);
+                return null;
+            case "thingUpdated":
+                Thing updated = (Thing) a[0];
+                Thing old = this.things.put(updated.getUID(), updated);
+                if (old != null && old != updated) {
+                    updated.setStatusInfo(old.getStatusInfo());
+                    updated.setHandler(old.getHandler());
+                }
+                return null;
+            case "isChannelLinked":
+                return true;
+            case "getBridge":
+                return this.bridges.get(a[0]);
+            case "equals":
+                return proxy == a[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "frigateSVRStubCallback";
+            default:
+                return Nothing(method.getReturnType());
+        }
+    }
+
+    // the answer to anything we don't implement
+
+    private static @Nullable Object Nothing(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0.0;
+        }
+        return null;
+    }
+}
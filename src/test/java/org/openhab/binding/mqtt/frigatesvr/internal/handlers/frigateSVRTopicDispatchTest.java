@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.handlers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.openhab.binding.mqtt.frigatesvr.internal.frigateSVRBindingConstants.*;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.binding.BaseThingHandler;
+import org.openhab.core.types.State;
+
+/**
+ * Tests for the MQTT topic dispatch tables of the server and camera Things:
+ * every topic in the tables reaches the channel it is meant for, and topics
+ * not in the tables are ignored.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRTopicDispatchTest {
+
+    private static final String SVR = frigateSVRHandlerFixture.PREFIX;
+    private static final String CAM = SVR + "/cam01";
+
+    private @NonNullByDefault({}) frigateSVRHandlerFixture fixture;
+    private @NonNullByDefault({}) frigateSVRServerHandler server;
+    private @NonNullByDefault({}) frigateSVRCameraHandler camera;
+    private final Set<String> tested = new HashSet<String>();
+
+    @BeforeEach
+    public void Setup() throws Exception {
+        this.fixture = new frigateSVRHandlerFixture(1, Map.of("ingestMode", "both", "objectCountInterval",
+                BigDecimal.ZERO, "objectCountChannels", true));
+        this.server = this.fixture.GetServer();
+        this.camera = this.fixture.GetCamera("cam01");
+    }
+
+    @AfterEach
+    public void TearDown() {
+        this.fixture.Stop();
+    }
+
+    // Feed one message to a handler as the MQTT client would, and wait
+    // for it to be dealt with. The text form gives back the state it left
+    // on the handler's channel.
+
+    private void Feed(BaseThingHandler handler, String topic, byte[] payload) throws InterruptedException {
+        this.tested.add(topic);
+        this.fixture.GetCallback().Clear();
+        if (handler == this.server) {
+            this.server.processMessage(topic, payload);
+        } else {
+            this.camera.processMessage(topic, payload);
+        }
+        this.fixture.Sync();
+    }
+
+    private @Nullable State Feed(BaseThingHandler handler, String topic, String payload, String channel)
+            throws InterruptedException {
+        Feed(handler, topic, payload.getBytes(StandardCharsets.UTF_8));
+        return State(handler, channel);
+    }
+
+    private @Nullable State State(BaseThingHandler handler, String channel) {
+        return this.fixture.GetState(handler.getThing(), channel);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> Topics(Object handler) throws Exception {
+        Field f = handler.getClass().getDeclaredField("topicDispatch");
+        f.setAccessible(true);
+        return ((Map<String, frigateSVRTopicHandler>) f.get(handler)).keySet();
+    }
+
+    @Test
+    public void EveryTopicReachesItsChannel() throws Exception {
+
+        // the camera's own state topics
+
+        assertEquals("ON", String.valueOf(Feed(this.camera, CAM + "/" + MQTT_DETECTION_GET, "ON",
+                CHANNEL_STATE_DETECTION)));
+        assertEquals("ON", String.valueOf(Feed(this.camera, CAM + "/" + MQTT_RECORDING_GET, "ON",
+                CHANNEL_STATE_RECORDING)));
+        assertEquals("OFF", String.valueOf(Feed(this.camera, CAM + "/" + MQTT_SNAPSHOTS_GET, "OFF",
+                CHANNEL_STATE_SNAPSHOTS)));
+        assertEquals("ON", String.valueOf(Feed(this.camera, CAM + "/" + MQTT_MOTIONDET_GET, "ON",
+                CHANNEL_STATE_MOTIONDET)));
+        assertEquals("OFF", String.valueOf(Feed(this.camera, CAM + "/" + MQTT_IMPCONTRAST_GET, "OFF",
+                CHANNEL_STATE_IMPCONTRAST)));
+        assertNotNull(Feed(this.camera, CAM + "/" + MQTT_MOTIONTHRESH_GET, "25", CHANNEL_STATE_MOTIONTHRESH));
+        assertNotNull(Feed(this.camera, CAM + "/" + MQTT_MOTIONCONTOUR_GET, "30", CHANNEL_STATE_MOTIONCONTOUR));
+        assertEquals("CLOSED", String.valueOf(Feed(this.camera, CAM + "/" + MQTT_MOTION, "ON",
+                CHANNEL_STATE_MOTIONDETECTED)));
+
+        // counts and snapshots, for each tracked object and 'all'. A snapshot
+        // the same as the last is dropped, so we take turns with two.
+
+        List<String> objects = new ArrayList<String>(frigateSVRHandlerFixture.TRACKED);
+        objects.add("all");
+        List<byte[]> jpegs = List.of(frigateSVRPayloads.Bytes("snapshot-1.jpg"),
+                frigateSVRPayloads.Bytes("snapshot-2.jpg"));
+        for (String obj : objects) {
+            byte[] jpeg = jpegs.get(this.tested.size() % 2);
+            assertEquals("2", String.valueOf(Feed(this.camera, CAM + "/" + obj, "2",
+                    CHANNEL_OBJ_COUNT_LABEL_PFX + obj)), obj);
+            assertEquals("1", String.valueOf(Feed(this.camera, CAM + "/" + obj + "/active", "1",
+                    CHANNEL_OBJ_COUNT_ACTIVE_LABEL_PFX + obj)), obj);
+            Feed(this.camera, CAM + "/" + obj + "/snapshot", jpeg);
+            assertEquals(obj, String.valueOf(State(this.camera, CHANNEL_LAST_SNAPSHOT_OBJECT)));
+            assertNotNull(State(this.camera, CHANNEL_LAST_SNAPSHOT), obj);
+        }
+
+        // the server's topics; events, reviews and stats end up on the camera
+
+        Feed(this.server, SVR + "/" + MQTT_EVENTS_SUFFIX, frigateSVRPayloads.Lines("events-small.jsonl").get(0));
+        assertEquals("1718201234.567891-a1b2c3", String.valueOf(State(this.camera, CHANNEL_EVENT_ID)));
+        Feed(this.server, SVR + "/" + MQTT_REVIEWS_SUFFIX, frigateSVRPayloads.Lines("reviews.jsonl").get(0));
+        assertEquals("1718201234.567891-r7q2k1", String.valueOf(State(this.camera, CHANNEL_REVIEW_ID)));
+        Feed(this.server, SVR + "/" + MQTT_STATS_SUFFIX, frigateSVRPayloads.Bytes("stats-1.json"));
+        assertNotNull(State(this.camera, CHANNEL_CAM_PROCESSFPS));
+        assertNotNull(Feed(this.server, SVR + "/" + MQTT_TRACKEDOBJUPDATE,
+                "{\"type\":\"description\",\"id\":\"1718201234.567891-a1b2c3\",\"description\":\"a person\"}",
+                CHANNEL_OBJ_TRACKED_OBJ_DESC));
+
+        // availability has no channel; 'online' is ignored and 'offline'
+        // takes the server offline.
+
+        Feed(this.server, SVR + "/" + MQTT_AVAILABILITY_SUFFIX, "online".getBytes(StandardCharsets.UTF_8));
+        assertEquals(ThingStatus.ONLINE, this.server.getThing().getStatus());
+        Feed(this.server, SVR + "/" + MQTT_AVAILABILITY_SUFFIX, "offline".getBytes(StandardCharsets.UTF_8));
+        assertEquals(ThingStatus.OFFLINE, this.server.getThing().getStatus());
+
+        // and nothing in the tables has been missed
+
+        Set<String> all = new HashSet<String>(Topics(this.server));
+        all.addAll(Topics(this.camera));
+        assertEquals(all, this.tested);
+    }
+
+    @Test
+    public void UnknownTopicsAreIgnored() throws Exception {
+
+        List<String> unknown = List.of("", SVR, SVR + "/", CAM, CAM + "/", CAM + "/person/other", CAM + "/horse",
+                CAM + "/horse/snapshot", CAM + "/PERSON", CAM + "/" + MQTT_DETECTION_SET, CAM + "/motion/",
+                SVR + "/cam02/" + MQTT_MOTION, SVR + "/cam02/person", SVR + "/" + MQTT_EVENTS_SUFFIX + "/cam01",
+                SVR + "/events/", "other/" + MQTT_EVENTS_SUFFIX, "other/cam01/person", SVR + "/+/active", SVR + "/#");
+        byte[] payload = "1".getBytes(StandardCharsets.UTF_8);
+
+        this.fixture.GetCallback().Clear();
+        for (String topic : unknown) {
+            this.server.processMessage(topic, payload);
+            this.camera.processMessage(topic, payload);
+        }
+        this.fixture.Sync();
+        assertEquals(0, this.fixture.GetCallback().GetUpdates());
+        assertEquals(ThingStatus.ONLINE, this.server.getThing().getStatus());
+        assertEquals(ThingStatus.ONLINE, this.camera.getThing().getStatus());
+        for (String topic : unknown) {
+            assertFalse(Topics(this.server).contains(topic), topic);
+            assertFalse(Topics(this.camera).contains(topic), topic);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.mqtt.frigatesvr.internal.handlers.frigateSVRPayloads;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVREventRecord;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVRReviewRecord;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests for {@link frigateSVREventDecoder}: every field the decoder gives must
+ * be the text the JSON tree gave (JsonParser, then toString() on the value),
+ * which is what the channels were built from before the decoder.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVREventDecoderTest {
+
+    private final frigateSVREventDecoder decoder = new frigateSVREventDecoder(new frigateSVRStringDictionary(64));
+
+    // An event built around the given 'after' fields, with the same
+    // 'before'.
+
+    private static String Event(String fields) {
+        String block = "{\"id\":\"1718201234.5-x1\",\"camera\":\"cam01\"," + fields + "}";
+        return "{\"before\":" + block + ",\"after\":" + block + ",\"type\":\"update\"}";
+    }
+
+    // The field text from the tree, as the camera handler used to get it
+
+    private static @Nullable String TreeValue(JsonObject part, String field) {
+        JsonElement e = part.get(field);
+        return (e == null || e.isJsonNull()) ? null : e.toString();
+    }
+
+    private void AssertSameAsTree(String payload) throws IOException {
+        frigateSVREventRecord rec = new frigateSVREventRecord();
+        assertTrue(this.decoder.Decode(payload.getBytes(StandardCharsets.UTF_8), cam -> true, rec));
+
+        JsonObject evt = JsonParser.parseString(payload).getAsJsonObject();
+        JsonObject before = evt.get("before").getAsJsonObject();
+        JsonObject after = evt.get("after").getAsJsonObject();
+        assertEquals(evt.get("type").getAsString(), rec.type);
+        assertEquals(after.get("camera").getAsString(), rec.camera);
+        assertEquals(after.get("id").getAsString(), rec.id);
+        for (int i = 0; i < frigateSVREventRecord.FIELDS.length; i++) {
+            String field = frigateSVREventRecord.FIELDS[i];
+            assertEquals(TreeValue(before, field), rec.before[i], "before." + field);
+            assertEquals(TreeValue(after, field), rec.after[i], "after." + field);
+        }
+    }
+
+    @Test
+    public void RecordedEventsMatchTree() throws IOException {
+        int n = 0;
+        for (String set : List.of("events-small", "events-medium", "events-large")) {
+            for (byte[] payload : frigateSVRPayloads.Lines(set + ".jsonl")) {
+                AssertSameAsTree(new String(payload, StandardCharsets.UTF_8));
+                n++;
+            }
+        }
+        assertTrue(n > 0);
+    }
+
+    @Test
+    public void NestedValuesMatchTree() throws IOException {
+        AssertSameAsTree(Event("\"box\":[412,188,520,470],\"region\":[[1,2],[3,[4,5]]],"
+                + "\"sub_label\":[\"Bob\",0.92],\"current_zones\":[],\"entered_zones\":[\"a\",\"b\"],"
+                + "\"recognized_license_plate\":{\"plate\":\"AB12 CDE\",\"score\":0.87,\"box\":[1,2,3,4],"
+                + "\"extra\":{\"x\":null,\"y\":[true,false,null]}}"));
+    }
+
+    @Test
+    public void EscapesAndUnicodeMatchTree() throws IOException {
+        AssertSameAsTree(Event("\"label\":\"quote\\\" backslash\\\\ slash\\/ tab\\t nl\\n cr\\r bs\\b ff\\f\","
+                + "\"sub_label\":\"Zo\u00eb \\u00e9 \\u20ac \ud83d\udc36 \\ud83d\\udc31 "
+                + "ctl\\u0001 ls\\u2028 ps\\u2029\","
+                + "\"current_zones\":[\"caf\u00e9\",\"\\u0000\"],\"max_severity\":\"<alert & 'x'>\""));
+    }
+
+    @Test
+    public void MalformedUtf8MatchesString() throws IOException {
+
+        // cut short, a stray continuation byte, overlong, a surrogate, out
+        // of range; as a String made from the bytes has them
+
+        byte[] bad = { (byte) 0xe2, (byte) 0x82, ' ', (byte) 0x80, ' ', (byte) 0xc0, (byte) 0x80, ' ', (byte) 0xed,
+                (byte) 0xa0, (byte) 0x80, ' ', (byte) 0xf0, (byte) 0x80, (byte) 0x80, (byte) 0x80, ' ', (byte) 0xf5,
+                (byte) 0x80, ' ', (byte) 0xf0, (byte) 0x9f, (byte) 0x90, (byte) 0xb6 };
+        String text = new String(bad, StandardCharsets.ISO_8859_1);
+        byte[] payload = Event("\"label\":\"" + text + "\"").getBytes(StandardCharsets.ISO_8859_1);
+        frigateSVREventRecord rec = new frigateSVREventRecord();
+        assertTrue(this.decoder.Decode(payload, cam -> true, rec));
+        JsonObject after = JsonParser.parseString(new String(payload, StandardCharsets.UTF_8)).getAsJsonObject()
+                .get("after").getAsJsonObject();
+        assertEquals(TreeValue(after, "label"), rec.after[frigateSVREventRecord.IndexOf("label")]);
+    }
+
+    @Test
+    public void LongValuesAcrossReads() throws IOException {
+
+        // longer than the reader's buffer, with characters of two to four
+        // bytes falling on every position
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            sb.append((i % 3 == 0) ? "\u00e9" : (i % 3 == 1) ? "\u20ac" : "\ud83d\udc36");
+        }
+        AssertSameAsTree(Event("\"label\":\"" + sb + "\",\"sub_label\":\"x" + sb + "\""));
+    }
+
+    @Test
+    public void NumbersMatchTree() throws IOException {
+        AssertSameAsTree(Event("\"score\":1e-05,\"top_score\":-0.0,\"area\":30456.0,\"ratio\":0.38297872340425532,"
+                + "\"frame_time\":1718201240.123456,\"start_time\":1.718201234567891E9,\"end_time\":-1,"
+                + "\"motionless_count\":0,\"position_changes\":12345678901234567890,\"snapshot_time\":2E+3,"
+                + "\"box\":[0.0,-0.0,1e-05,1E5]"));
+    }
+
+    @Test
+    public void NullsAndAbsentFieldsMatchTree() throws IOException {
+        AssertSameAsTree(Event("\"sub_label\":null,\"end_time\":null,\"box\":null,\"label\":\"person\""));
+    }
+
+    @Test
+    public void LenientValuesMatchTree() throws IOException {
+        AssertSameAsTree(Event("\"score\":NaN,\"top_score\":Infinity,\"ratio\":-Infinity"));
+    }
+
+    @Test
+    public void UnwantedFieldsAreSkipped() throws IOException {
+        AssertSameAsTree(Event("\"path_data\":[[[0.1,0.2],1.5]],\"snapshot\":{\"camera\":\"other\",\"label\":\"dog\"},"
+                + "\"attributes\":{\"face\":0.5},\"label\":\"person\""));
+    }
+
+    @Test
+    public void OtherCameraStopsEarly() throws IOException {
+        List<String> asked = new ArrayList<String>();
+        frigateSVREventRecord rec = new frigateSVREventRecord();
+
+        // the rest of the message is not even well formed; we must not get that far
+
+        String payload = "{\"before\":{\"id\":\"x\",\"camera\":\"cam02\",\"label\":\"dog\"},\"after\":{ broken";
+        assertFalse(this.decoder.Decode(payload.getBytes(StandardCharsets.UTF_8), cam -> {
+            asked.add(cam);
+            return cam.equals("cam01");
+        }, rec));
+        assertEquals(List.of("cam02"), asked);
+
+        // the tree path would have dropped it on the same name
+
+        String whole = Event("\"label\":\"dog\"").replace("cam01", "cam02");
+        assertFalse(this.decoder.Decode(whole.getBytes(StandardCharsets.UTF_8), cam -> cam.equals("cam01"), rec));
+        assertEquals("cam02",
+                JsonParser.parseString(whole).getAsJsonObject().get("after").getAsJsonObject().get("camera")
+                        .getAsString());
+    }
+
+    @Test
+    public void KnownBeforeIsSkipped() throws IOException {
+        frigateSVREventRecord rec = new frigateSVREventRecord();
+        List<String> asked = new ArrayList<String>();
+
+        // the rest of the 'before' block is skipped unread, however odd
+
+        String payload = "{\"before\":{\"id\":\"x1\",\"camera\":\"cam01\",\"label\":\"dog\",\"box\":[1,[2]]},"
+                + "\"after\":{\"id\":\"x1\",\"camera\":\"cam01\",\"label\":\"cat\"},\"type\":\"update\"}";
+        assertTrue(this.decoder.Decode(payload.getBytes(StandardCharsets.UTF_8), cam -> true, (cam, id) -> {
+            asked.add(cam + "/" + id);
+            return true;
+        }, rec));
+        assertEquals(List.of("cam01/x1"), asked);
+        assertTrue(rec.beforeSkipped);
+        assertEquals("x1", rec.id);
+        assertEquals("\"cat\"", rec.after[frigateSVREventRecord.IndexOf("label")]);
+        for (String v : rec.before) {
+            assertNull(v);
+        }
+
+        // and read as normal otherwise
+
+        assertTrue(this.decoder.Decode(payload.getBytes(StandardCharsets.UTF_8), cam -> true, (cam, id) -> false,
+                rec));
+        assertFalse(rec.beforeSkipped);
+        assertEquals("\"dog\"", rec.before[frigateSVREventRecord.IndexOf("label")]);
+        assertEquals("[1,[2]]", rec.before[frigateSVREventRecord.IndexOf("box")]);
+    }
+
+    @Test
+    public void SkippedBeforeSurvivesEncode() throws IOException {
+        frigateSVREventRecord rec = new frigateSVREventRecord();
+        byte[] payload = Event("\"label\":\"person\"").getBytes(StandardCharsets.UTF_8);
+        assertTrue(this.decoder.Decode(payload, cam -> true, (cam, id) -> true, rec));
+
+        frigateSVREventRecord back = new frigateSVREventRecord();
+        assertTrue(this.decoder.Decode(frigateSVREventJournal.Encode(rec), cam -> true, back));
+        assertTrue(back.beforeSkipped);
+        assertEquals(rec.id, back.id);
+        assertEquals("\"person\"", back.after[frigateSVREventRecord.IndexOf("label")]);
+    }
+
+    @Test
+    public void IncompleteEventThrows() {
+        frigateSVREventRecord rec = new frigateSVREventRecord();
+        assertThrows(IOException.class, () -> this.decoder.Decode(
+                "{\"after\":{\"camera\":\"cam01\"},\"type\":\"new\"}".getBytes(StandardCharsets.UTF_8), cam -> true,
+                rec));
+        assertThrows(IOException.class,
+                () -> this.decoder.Decode("{\"before\":".getBytes(StandardCharsets.UTF_8), cam -> true, rec));
+    }
+
+    @Test
+    public void RecordedReviewsMatchTree() throws IOException {
+        for (byte[] payload : frigateSVRPayloads.Lines("reviews.jsonl")) {
+            frigateSVRReviewRecord rec = new frigateSVRReviewRecord();
+            assertTrue(this.decoder.DecodeReview(payload, cam -> true, rec));
+
+            JsonObject evt = JsonParser.parseString(new String(payload, StandardCharsets.UTF_8)).getAsJsonObject();
+            JsonObject after = evt.get("after").getAsJsonObject();
+            JsonObject data = after.get("data").getAsJsonObject();
+            assertEquals(evt.get("type").getAsString(), rec.type);
+            assertEquals(after.get("camera").getAsString(), rec.camera);
+            assertEquals(after.get("id").getAsString(), rec.id);
+            for (int i = 0; i < frigateSVRReviewRecord.FIELDS.length; i++) {
+                String field = frigateSVRReviewRecord.FIELDS[i];
+                String expect = after.has(field) ? TreeValue(after, field) : TreeValue(data, field);
+                assertEquals(expect, rec.values[i], field);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.mqtt.frigatesvr.internal.structures.frigateSVREventRecord;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests for {@link frigateSVREventHistory}: events come back newest first, and
+ * events restored from the journal go in ahead of those added since, without
+ * repeating any.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVREventHistoryTest {
+
+    private static frigateSVREventRecord Event(String id) {
+        frigateSVREventRecord evt = new frigateSVREventRecord();
+        evt.type = "end";
+        evt.camera = "cam01";
+        evt.id = id;
+        evt.after[frigateSVREventRecord.IndexOf("label")] = "\"person\"";
+        return evt;
+    }
+
+    private static List<frigateSVREventRecord> Events(String... ids) {
+        List<frigateSVREventRecord> rc = new ArrayList<frigateSVREventRecord>();
+        for (String id : ids) {
+            rc.add(Event(id));
+        }
+        return rc;
+    }
+
+    private static List<String> Ids(frigateSVREventHistory history) {
+        List<String> rc = new ArrayList<String>();
+        for (JsonElement e : JsonParser.parseString(history.Query("", "", 0, 0, 0, 0)).getAsJsonArray()) {
+            rc.add(e.getAsJsonObject().get("id").getAsString());
+        }
+        return rc;
+    }
+
+    private static JsonObject Only(frigateSVREventHistory history) {
+        return JsonParser.parseString(history.Query("", "", 0, 0, 0, 0)).getAsJsonArray().get(0).getAsJsonObject();
+    }
+
+    @Test
+    public void FieldsAsTreeGaveThem() {
+
+        // labels and zones are read from the JSON text the decoder gave,
+        // escapes and all; anything else comes out empty, as before
+
+        frigateSVREventHistory history = new frigateSVREventHistory(1);
+        frigateSVREventRecord evt = Event("a");
+        evt.after[frigateSVREventRecord.IndexOf("label")] = "\"caf\u00e9 \\\"x\\\" \\u0001\\n\"";
+        evt.after[frigateSVREventRecord.IndexOf("sub_label")] = "[\"Bob\",0.92]";
+        evt.after[frigateSVREventRecord.IndexOf("entered_zones")] = "[\"yard\",\"a\\\"b\",\"\",5]";
+        history.Add(evt);
+        JsonObject e = Only(history);
+        assertEquals("caf\u00e9 \"x\" \u0001\n", e.get("label").getAsString());
+        assertEquals("", e.get("sub_label").getAsString());
+        assertEquals("[\"yard\",\"a\\\"b\",\"\",\"5\"]", e.get("zones").toString());
+
+        evt.after[frigateSVREventRecord.IndexOf("label")] = "\"person\"";
+        evt.after[frigateSVREventRecord.IndexOf("sub_label")] = null;
+        evt.after[frigateSVREventRecord.IndexOf("entered_zones")] = "[[\"x\"]]";
+        history.Add(evt);
+        e = Only(history);
+        assertEquals("person", e.get("label").getAsString());
+        assertEquals("", e.get("sub_label").getAsString());
+        assertEquals("[]", e.get("zones").toString());
+
+        evt.after[frigateSVREventRecord.IndexOf("entered_zones")] = "[]";
+        history.Add(evt);
+        assertEquals("[]", Only(history).get("zones").toString());
+    }
+
+    @Test
+    public void NewestFirstAndBounded() {
+        frigateSVREventHistory history = new frigateSVREventHistory(3);
+        for (frigateSVREventRecord evt : Events("a", "b", "c", "d")) {
+            history.Add(evt);
+        }
+        assertEquals(List.of("d", "c", "b"), Ids(history));
+    }
+
+    @Test
+    public void RestoredGoAheadOfLive() {
+        frigateSVREventHistory history = new frigateSVREventHistory(5);
+        history.Add(Event("e"));
+        history.Add(Event("f"));
+
+        // 'e' was journalled as well as delivered; it is not repeated, and
+        // only the newest of the rest that fit are kept
+
+        history.Restore(Events("a", "b", "c", "d", "e"));
+        assertEquals(List.of("f", "e", "d", "c", "b"), Ids(history));
+
+        // and the ring carries on from there
+
+        history.Add(Event("g"));
+        assertEquals(List.of("g", "f", "e", "d", "c"), Ids(history));
+    }
+
+    @Test
+    public void RestoreIntoEmptyAndFull() {
+        frigateSVREventHistory history = new frigateSVREventHistory(3);
+        history.Restore(Events("a", "b"));
+        assertEquals(List.of("b", "a"), Ids(history));
+        history.Add(Event("c"));
+        history.Restore(Events("x"));
+        assertEquals(List.of("c", "b", "a"), Ids(history));
+
+        frigateSVREventHistory none = new frigateSVREventHistory(0);
+        none.Restore(Events("a"));
+        assertEquals(List.of(), Ids(none));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link frigateSVREventJournal}: events come back in order across a
+ * reopen, and a record we were part way through writing when we stopped is
+ * skipped, including once the journal has wrapped and the header counts it.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVREventJournalTest {
+
+    private @TempDir @NonNullByDefault({}) Path dir;
+
+    private static byte[] Event(int n) {
+        return ("{\"event\":" + n + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> Replay(frigateSVREventJournal journal, long since) {
+        List<String> got = new ArrayList<String>();
+        journal.Replay(since, payload -> got.add(new String(payload, StandardCharsets.UTF_8)));
+        return got;
+    }
+
+    // Write over the start of the record in a slot, as an Append cut short
+    // after the time and length would
+
+    private static void Tear(Path path, int slot, long time) throws IOException {
+        ByteBuffer part = ByteBuffer.allocate(frigateSVREventJournal.RECORD_HEADER_SIZE + 4);
+        part.putLong(time).putInt(100).putInt(0).put("{\"ev".getBytes(StandardCharsets.UTF_8)).flip();
+        try (FileChannel fc = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            fc.write(part, frigateSVREventJournal.HEADER_SIZE + (long) slot * frigateSVREventJournal.RECORD_SIZE);
+        }
+    }
+
+    @Test
+    public void ReplayAfterReopen() throws IOException {
+        Path path = this.dir.resolve("a.journal");
+        frigateSVREventJournal journal = new frigateSVREventJournal(path, 4);
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(journal.Append(i * 1000L, Event(i)));
+        }
+        assertFalse(journal.Append(4000L, new byte[frigateSVREventJournal.RECORD_SIZE]));
+        journal.Close();
+
+        journal = new frigateSVREventJournal(path, 4);
+        assertEquals(List.of("{\"event\":1}", "{\"event\":2}", "{\"event\":3}"), Replay(journal, 0));
+        assertEquals(List.of("{\"event\":2}", "{\"event\":3}"), Replay(journal, 1500L));
+        journal.Close();
+    }
+
+    @Test
+    public void TornRecordAfterWrapIsSkipped() throws IOException {
+        Path path = this.dir.resolve("b.journal");
+        frigateSVREventJournal journal = new frigateSVREventJournal(path, 4);
+        for (int i = 1; i <= 6; i++) {
+            journal.Append(i * 1000L, Event(i));
+        }
+        journal.Close();
+
+        // the next record goes in slot 2, over event 3, which the header
+        // still counts as the oldest. It gets as far as its time.
+
+        Tear(path, 2, 7000L);
+        journal = new frigateSVREventJournal(path, 4);
+        assertEquals(List.of("{\"event\":4}", "{\"event\":5}", "{\"event\":6}"), Replay(journal, 0));
+
+        // the time index is still in order, so a later start is found
+
+        assertEquals(List.of("{\"event\":5}", "{\"event\":6}"), Replay(journal, 4500L));
+        assertEquals(List.of(), Replay(journal, 6500L));
+
+        // and the slot is used again as normal
+
+        journal.Append(7000L, Event(7));
+        assertEquals(List.of("{\"event\":4}", "{\"event\":5}", "{\"event\":6}", "{\"event\":7}"), Replay(journal, 0));
+        journal.Close();
+    }
+
+    @Test
+    public void AppendDuringReplay() throws IOException {
+        Path path = this.dir.resolve("c.journal");
+        frigateSVREventJournal journal = new frigateSVREventJournal(path, 4);
+        for (int i = 1; i <= 4; i++) {
+            journal.Append(i * 1000L, Event(i));
+        }
+
+        // the journal is not held while the consumer works, so events can
+        // still be written; those overwritten before we reach them are
+        // skipped, and those written after we started are left out.
+
+        List<String> got = new ArrayList<String>();
+        journal.Replay(0, payload -> {
+            got.add(new String(payload, StandardCharsets.UTF_8));
+            if (got.size() == 1) {
+                journal.Append(5000L, Event(5));
+                journal.Append(6000L, Event(6));
+            }
+        });
+        assertEquals(List.of("{\"event\":1}", "{\"event\":3}", "{\"event\":4}"), got);
+        assertEquals(List.of("{\"event\":3}", "{\"event\":4}", "{\"event\":5}", "{\"event\":6}"),
+                Replay(journal, 0));
+        journal.Close();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link frigateSVRMessageQueue}: tasks run in order, one at a time,
+ * across the batches the queue drains in, and droppable tasks are dropped
+ * first.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRMessageQueueTest {
+
+    @Test
+    public void TasksRunInOrderAcrossBatches() throws InterruptedException {
+        frigateSVRMessageQueue queue = new frigateSVRMessageQueue("test", 1000);
+        List<Integer> ran = new ArrayList<Integer>();
+        CountDownLatch done = new CountDownLatch(1);
+        CountDownLatch go = new CountDownLatch(1);
+
+        // hold the first task until the rest are queued, so that they are
+        // drained in several batches
+
+        queue.Submit(() -> {
+            try {
+                go.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, false);
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            assertTrue(queue.Submit(() -> ran.add(n), false));
+        }
+        queue.Submit(done::countDown, false);
+        go.countDown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(200, ran.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, ran.get(i));
+        }
+        assertEquals(0, queue.GetDepth());
+    }
+
+    @Test
+    public void DroppableTasksGoFirst() throws InterruptedException {
+        frigateSVRMessageQueue queue = new frigateSVRMessageQueue("test", 4);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        queue.Submit(() -> {
+            try {
+                go.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, false);
+
+        // once the first task is running, the queue is empty; droppable
+        // tasks then fill half of it, the others all of it
+
+        while (queue.GetDepth() > 0) {
+            Thread.sleep(1);
+        }
+        assertTrue(queue.Submit(() -> {
+        }, true));
+        assertTrue(queue.Submit(() -> {
+        }, true));
+        assertFalse(queue.Submit(() -> {
+        }, true));
+        assertTrue(queue.Submit(() -> {
+        }, false));
+        assertTrue(queue.Submit(done::countDown, false));
+        assertFalse(queue.Submit(() -> {
+        }, false));
+        assertEquals(2, queue.GetDropped());
+        go.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link frigateSVRStringDictionary}.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRStringDictionaryTest {
+
+    @Test
+    public void SameInstanceFromText() {
+        frigateSVRStringDictionary dict = new frigateSVRStringDictionary(64);
+        String person = dict.Intern(new StringBuilder("\"person\""));
+        assertEquals("\"person\"", person);
+        assertSame(person, dict.Intern(new StringBuilder("\"person\"")));
+        assertSame(person, dict.Intern("\"person\""));
+        assertNotSame(person, dict.Intern("\"car\""));
+    }
+
+    @Test
+    public void BoundedAndEvicts() {
+        frigateSVRStringDictionary dict = new frigateSVRStringDictionary(64);
+        String person = dict.Intern("person");
+        for (int i = 0; i < 10000; i++) {
+            dict.Intern("[\"zone" + i + "\"]");
+
+            // in use all along, so it stays
+
+            assertSame(person, dict.Intern("person"));
+        }
+        assertTrue(dict.Size() <= 64);
+
+        // long gone; we get a new one with the same text
+
+        String first = dict.Intern("[\"zone0\"]");
+        assertEquals("[\"zone0\"]", first);
+        assertSame(first, dict.Intern(new StringBuilder("[\"zone0\"]")));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2010-2026 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.frigatesvr.internal.structures;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * Tests for the number and timestamp converters of
+ * {@link frigateSVRChannelState}: the shared small numbers and the digit
+ * parse of timestamps must give what parsing the text in full gives.
+ *
+ * @author J Gow - Initial contribution
+ */
+@NonNullByDefault
+public class frigateSVRChannelStateTest {
+
+    // The number as DecimalType parses it, precision and all
+
+    private static void AssertSameNumber(String s) {
+        State st = frigateSVRChannelState.fromNumberMQTT(s);
+        DecimalType expect = new DecimalType(s);
+        assertEquals(expect, st, s);
+        assertEquals(expect.toFullString(), ((DecimalType) st).toFullString(), s);
+    }
+
+    @Test
+    public void SharedNumbersMatchParse() {
+        for (int i = 0; i < 1024; i++) {
+            AssertSameNumber(String.valueOf(i));
+            AssertSameNumber(i + ".0");
+        }
+        assertSame(frigateSVRChannelState.fromNumberMQTT("1023"), frigateSVRChannelState.fromNumberMQTT("1023"));
+        assertSame(frigateSVRChannelState.fromNumberMQTT("7.0"), frigateSVRChannelState.fromNumberMQTT("7.0"));
+    }
+
+    @Test
+    public void OtherNumbersMatchParse() {
+        for (String s : List.of("1024", "1024.0", "9999", "10000", "-1", "-0", "-1.0", "0.5", "1.5", "12.25", "5.00",
+                "1.05", "0.0", "00", "007", "0007", "00007", ".0", ".5", "5.", "1e3", "1E+3", "2.0e-2", "1023.5",
+                "123456789012345678901234567890")) {
+            AssertSameNumber(s);
+        }
+    }
+
+    @Test
+    public void BadNumbersThrowAsBefore() {
+        for (String s : List.of("", ".", "-", "1.0.0", "abc", "0x10", "1,5")) {
+            assertThrows(NumberFormatException.class, () -> frigateSVRChannelState.fromNumberMQTT(s), s);
+        }
+    }
+
+    // The instant for a timestamp, worked out exactly from the text; any
+    // digits past nanoseconds are dropped.
+
+    private static Instant Exact(String s) {
+        BigDecimal ts = new BigDecimal(s);
+        BigDecimal sec = ts.setScale(0, RoundingMode.FLOOR);
+        BigDecimal nano = ts.subtract(sec).movePointRight(9).setScale(0, RoundingMode.DOWN);
+        return Instant.ofEpochSecond(sec.longValueExact(), nano.longValueExact());
+    }
+
+    private static Instant InstantOf(String s) {
+        State st = frigateSVRChannelState.fromTimestampMQTT(s);
+        assertInstanceOf(DateTimeType.class, st, s);
+        return ((DateTimeType) st).getInstant();
+    }
+
+    @Test
+    public void TimestampsAreExact() {
+        for (String s : List.of("1712345678.123456", "1712345678", "1712345678.", "1712345678.5", "0.000001",
+                ".25", "1712345678.123456789", "1712345678.1234567891", "1", "4102444800.999999")) {
+            assertEquals(Exact(s), InstantOf(s), s);
+        }
+    }
+
+    @Test
+    public void OtherTimestampsAsDouble() {
+
+        // anything that isn't plain digits goes through a double, as all
+        // timestamps did before; a double holds these to a microsecond
+
+        for (String s : List.of("-1.5", "-1712345678.25", "1.712345678123456E9", "1.7e9", "+1712345678.5",
+                "1712345678.5e0")) {
+            Duration off = Duration.between(Exact(s.startsWith("+") ? s.substring(1) : s), InstantOf(s)).abs();
+            assertTrue(off.toNanos() <= 1000, s + " off by " + off);
+        }
+    }
+
+    @Test
+    public void ZeroAndOutOfRangeTimestampsAreNull() {
+        for (String s : List.of("0", "0.0", "0.000", "-0.0", "0e5", "NaN", "99999999999999999", "999999999999999999",
+                "12345678901234567890123", "1e300", "-1e300", "Infinity", "-Infinity")) {
+            assertEquals(UnDefType.NULL, frigateSVRChannelState.fromTimestampMQTT(s), s);
+        }
+    }
+
+    @Test
+    public void BadTimestampsThrowAsBefore() {
+        for (String s : List.of("", ".", "abc", "1712345678.12.3", "1712345678,5", "17123-45678")) {
+            assertThrows(NumberFormatException.class, () -> frigateSVRChannelState.fromTimestampMQTT(s), s);
+        }
+    }
+}